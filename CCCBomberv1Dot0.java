@@ -1,25 +1,64 @@
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.Optional;
+import java.util.Timer;
+import java.util.TimerTask;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.lang.management.ManagementFactory;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
 /**
  * Count Clear Clauses Bomber SAT Solver, Java version, v1.0
  * Free for any purpose, but please cite our contribution.
- * See also: Solving SAT by an Iterative Version of the Inclusion-Exclusion Principle/
+ * See also: Solving SAT by an Iterative Version of the Inclusion-Exclusion Principle
+ */
 
+/**
+ * An error of the files of the solver, the message tells it to the user, who gets it printed
+ * before the solver exits.
+ */
+class SolverException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+	public SolverException(String message) {
+		super(message);
+	}
+	public SolverException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
 //this is the main class, it calls the solver
 public class CCCBomberv1Dot0 {
 	public static void main(String[] args) {
+		try {
+			Run(args);
+		} catch (SolverException e) {
+			System.out.println(e.getMessage());
+			System.exit(-1);
+		}
+	}
+	private static void Run(String[] args) {
 		long startTime = System.currentTimeMillis();
 		long endTime;
 		System.out.println("SATCounter: Count Clear Clauses SAT Solver");
-		if (args.length != 1) {
-			System.out.println("Start it with a DIMACS file as a parameter.");
-			System.out.println("The DIMACS file may not contain more than 62 variables.");
+		Options options = Options.Parse(args);
+		if (options == null) {
+			Options.PrintUsage();
 		} else {
-			String fileName = args[0];
-			ClauseSet s = new ClauseSet(fileName);
-			Clause solution = SATCounter.SolveWithBombs(s); // it calls the solver
+			ClauseSet s = new ClauseSet(options.fileName);
+			Clause solution = SATCounter.SolveWithBombs(s, options); // it calls the solver
 			if (solution == null) {
 				endTime = System.currentTimeMillis();
 				System.out.println("Unsatisfiable!");
@@ -28,8 +67,67 @@ public class CCCBomberv1Dot0 {
 				System.out.println("Satisfiable! A solution is:");
 				System.out.println(solution);
 			}
-			System.out.println("CPU time is " + (endTime - startTime) / 1000.0f + " s");
+			System.out.println(SolverMetrics.TimeLine(endTime - startTime));
+		}
+	}
+}
+/**
+ * The command line of CCCBomberv1Dot0: [options] a_cnf_file
+ * The parameters of the bombs are explained at BombScheduler.
+ */
+class Options {
+	String fileName;
+	int sampleSteps = 10000;
+	int stepBits = 10;
+	int bombBits = -1; // if it is not negative, it is used instead of sampling
+	int maxBombs = 4096;
+	int sliceSteps = 64;
+	int batchSize = 64;
+	boolean jmx = false; // the SolverMetrics are registered as an MBean
+	int progressSeconds = 0; // if it is positive, the progress is printed this often
+	String checkpointFile = null; // the state of the bombs is saved here, see Checkpoint
+	int checkpointSeconds = 10;
+	boolean resume = false; // the bombs go on from the checkpoint
+	// returns null if the command line is wrong
+	public static Options Parse(String[] args) {
+		Options o = new Options();
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (arg.startsWith("--")) arg = arg.substring(1); // --resume is the same as -resume
+			boolean hasValue = i + 1 < args.length;
+			if (arg.equals("-sample") && hasValue) o.sampleSteps = Integer.parseInt(args[++i]);
+			else if (arg.equals("-stepbits") && hasValue) o.stepBits = Integer.parseInt(args[++i]);
+			else if (arg.equals("-bombbits") && hasValue) o.bombBits = Integer.parseInt(args[++i]);
+			else if (arg.equals("-maxbombs") && hasValue) o.maxBombs = Integer.parseInt(args[++i]);
+			else if (arg.equals("-slice") && hasValue) o.sliceSteps = Integer.parseInt(args[++i]);
+			else if (arg.equals("-batchsize") && hasValue) o.batchSize = Integer.parseInt(args[++i]);
+			else if (arg.equals("-jmx")) o.jmx = true;
+			else if (arg.equals("-progress") && hasValue) o.progressSeconds = Integer.parseInt(args[++i]);
+			else if (arg.equals("-checkpoint") && hasValue) o.checkpointFile = args[++i];
+			else if (arg.equals("-checkpointseconds") && hasValue) o.checkpointSeconds = Integer.parseInt(args[++i]);
+			else if (arg.equals("-resume")) o.resume = true;
+			else if (!arg.startsWith("-") && o.fileName == null) o.fileName = arg;
+			else return null;
 		}
+		if (o.resume && o.checkpointFile == null) return null;
+		return o.fileName == null || o.maxBombs < 1 || o.sliceSteps < 1 || o.batchSize < 1 ? null : o;
+	}
+	public static void PrintUsage() {
+		System.out.println("Start it with a DIMACS file as a parameter.");
+		System.out.println("The DIMACS file may not contain more than 62 variables.");
+		System.out.println("Options, they have to be given before the file name:");
+		System.out.println("  -sample n    steps of the sampling phase, default 10000");
+		System.out.println("  -stepbits k  a bomb should finish in about 2^k steps, default 10");
+		System.out.println("  -bombbits k  every bomb starts with 2^k values, no sampling, default: sampled");
+		System.out.println("  -maxbombs n  the most bombs at the same time, default 4096");
+		System.out.println("  -slice n     steps of a bomb when it is scheduled, default 64");
+		System.out.println("  -batchsize n  bombs evaluated together in one pass over the clauses, default 64");
+		System.out.println("  -jmx         the progress of the bombs is an MBean, cccsat:type=SolverMetrics");
+		System.out.println("  -progress n  prints the progress of the bombs in every n seconds");
+		System.out.println("  -checkpoint file  saves the state of the bombs into the file, so a killed run");
+		System.out.println("                    can go on from there");
+		System.out.println("  -checkpointseconds n  the checkpoint is saved in every n seconds, default 10");
+		System.out.println("  -resume      goes on from the checkpoint, if there is one");
 	}
 }
 /**
@@ -37,81 +135,571 @@ public class CCCBomberv1Dot0 {
  * It starts many counters instead of one.
  * The more bomb the better chance that one of them is lucky, so finds a solution quickly,
  * but the overhead is also bigger.
- * This class is not optimized.
  * Use only for experimenting the algorithm.
  * It has been tested on lot of SAT problem instances, bit still it might contain errors.
- * Change minBombStep, and maxSizeOfBombs to have different number of bombs.
+ * The number of bombs can be set by the command line, see Options.
  * Enjoy!
  */
 class SATCounter {
-	// This function implements the optimized CCC algorithm.
-	public static Clause SolveWithBombs(ClauseSet s) {
-		ArrayList<Long> bombs = new ArrayList<Long>();
-		ArrayList<ClearClause> counters = new ArrayList<ClearClause>();
-		int numOfBits = global.getNumOfBits();
-		long currentBomb = 0L;
-		//System.out.println("toreach: " + (1L << numOfBits));
-		//System.out.println("my_bomb: " + currentBomb);
-		
-		
-		// *******************************************
-		// change this line to set the number of bombs
-		// *******************************************
-		int minBombStep = numOfBits - 10;
-		
-		Random rnd = new Random();
-		while(currentBomb < (1L << numOfBits)) {
-			bombs.add(currentBomb);
-			counters.add(Clause.ToClause(currentBomb));
-			
-			// *******************************************
-			// change this line to set the number of bombs
-			// *******************************************
-			int maxSizeOfBombs = 4;
-			
-			int newBomb = rnd.nextInt(maxSizeOfBombs+1)+minBombStep;
-			
-			
-			currentBomb += 1L << newBomb;
-			//System.out.println("toreach: " + (1L << numOfBits));
-			//System.out.println("my_bomb: " + currentBomb);
-		}
-		System.out.println("Number of bombs: " + bombs.size());
-		// this will stop the last bomb
-		bombs.add(1L << numOfBits); 
-		
-		
-		boolean[] solved = new boolean[counters.size()];
-		for(int i=0; i<solved.length; i++) { solved[i] = false; }
-		int numberOfNotYedSolvedOnes = counters.size();
-		while(numberOfNotYedSolvedOnes != 0)
-		{
-			for (int i=0; i<counters.size();  i++) {
-				if (solved[i]) continue;
-				//System.out.println("i: " + i);
-				ClearClause currentCounter = counters.get(i);
-				List<Clause> subsumers = s.SubsumersOfClearClause(currentCounter);
-				//System.out.println("counter: " + currentCounter.ToLong());
-				//System.out.println("#subsumers: " + subsumers.size());
-				if (subsumers.isEmpty()) return currentCounter.Negate(); // solution is found, we return it
-				byte maxNumberOfX = 0;
-				for (Clause subsumer : subsumers) { // selects the best subsumer
-					byte currentNumberOfX = subsumer.NumberOfXFromRight();
-					if (currentNumberOfX > maxNumberOfX) maxNumberOfX = currentNumberOfX;
+	// This function implements the CCC Bomber algorithm, see BombScheduler.
+	public static Clause SolveWithBombs(ClauseSet s, Options o) {
+		BombScheduler scheduler = new BombScheduler(s, o);
+		SolverMetrics metrics = new SolverMetrics(global.getNumOfBits(), scheduler, s.Packed().size);
+		if (o.jmx) metrics.Register("CCCBomberv1Dot0");
+		if (o.progressSeconds > 0) metrics.StartLog(o.progressSeconds);
+		scheduler.SetMetrics(metrics);
+		if (o.checkpointFile != null) {
+			Checkpoint checkpoint = new Checkpoint(o.checkpointFile, s, o.checkpointSeconds);
+			if (o.resume) scheduler.Resume(checkpoint.Load());
+			scheduler.SetCheckpoint(checkpoint);
+		}
+		Clause solution = scheduler.Solve();
+		metrics.Close();
+		System.out.println(scheduler.Statistics());
+		return solution;
+	}
+}
+/**
+ * The bombs and their schedule.
+ * A bomb is a counter which counts from its start till the start of the next bomb.
+ * 1. Sampling: the first bomb counts from 0 for some steps, the average jump of these steps
+ *    sets the size of the bombs, a bomb gets 2^(average jump + stepBits) values.
+ * 2. The other bombs are placed after each other, each bomb starts at a multiple of its size.
+ * 3. The batchSize bombs with the smallest pass run a slice of steps together, with one pass over
+ *    the clauses per step, see PackedClauses.BestJumps. Then the pass of a bomb grows by
+ *    1/(1 + its recent average jump), so a bomb with big jumps gets more slices (stride scheduling).
+ * 4. If a bomb has much more values left than it can count in 2^stepBits steps, the upper half
+ *    of its values is given to a new bomb.
+ * 5. A bomb which reached its end is not scheduled any more.
+ * The jump of a bomb is skipBlock, so a bomb may start anywhere.
+ */
+class BombScheduler {
+	private static final double DECAY = 0.75; // the weight of the old average jump
+	private final ClauseSet s;
+	private final Options o;
+	private final int numOfBits;
+	// the bombs, the bomb b counts in [counter[b], end[b])
+	private long[] counter, end;
+	private double[] averageJump, pass;
+	private int bombs = 0;
+	private int[] heap; // the bombs which have not reached their end, a binary heap ordered by pass
+	private int heapSize = 0;
+	private long steps = 0;
+	private double jumpSum = 0; // of all the steps
+	private int splits = 0;
+	private Clause solution = null;
+	private long solutionCounter; // the value of the counter at the solution
+	private final long startTime = System.nanoTime();
+	private SolverMetrics metrics = null;
+	private Checkpoint checkpoint = null;
+	private List<String> resumed = null; // the state in the checkpoint, see State
+	// the steps of each jump, the steps and the covered values since the last publishing
+	private final long[] histogram = new long[64];
+	private long unpublishedSteps = 0, unpublishedCovered = 0;
+	public BombScheduler(ClauseSet s, Options o) {
+		this.s = s;
+		this.o = o;
+		numOfBits = global.getNumOfBits();
+		int capacity = 16;
+		counter = new long[capacity];
+		end = new long[capacity];
+		averageJump = new double[capacity];
+		pass = new double[capacity];
+		heap = new int[capacity];
+	}
+	// the progress is given to metrics after the sampling and after every slice
+	public void SetMetrics(SolverMetrics metrics) {
+		this.metrics = metrics;
+	}
+	// the state of the bombs is saved into checkpoint between the slices, if it is due
+	public void SetCheckpoint(Checkpoint checkpoint) {
+		this.checkpoint = checkpoint;
+	}
+	// the bombs of Solve are given by state, see State, instead of sampling and placing
+	// them, if it is null, it starts from the beginning
+	public void Resume(List<String> state) {
+		resumed = state;
+	}
+	// returns a solution, or null if there is none
+	public Clause Solve() {
+		if (resumed != null) ResumeBombs();
+		else PlaceBombs();
+		int[] batch = new int[o.batchSize];
+		while (heapSize > 0 && solution == null) {
+			int n = 0;
+			while (n < batch.length && heapSize > 0) {
+				int b = Pop();
+				if (bombs < o.maxBombs && end[b] - counter[b] > (2L << Math.min(61, StepBits(b)))) {
+					long half = (end[b] - counter[b]) >>> 1;
+					long middle = (counter[b] + half) & -Long.highestOneBit(half);
+					NewBomb(middle, end[b], averageJump[b], pass[b]);
+					end[b] = middle;
+					splits++;
 				}
-				long toAdd = 1L << maxNumberOfX;
-				currentCounter.add(toAdd);
-				//System.out.println("toAdd: " + toAdd);
-				//System.out.println("counter: " + currentCounter.ToLong());
-				if (currentCounter.isGreaterOrEqu(bombs.get(i+1))){
-					//System.out.println("This one is solved!");
-					solved[i] = true; // this one is solved
-					numberOfNotYedSolvedOnes--;
+				batch[n++] = b;
+			}
+			RunSlice(batch, n);
+			for (int k = 0; k < n; k++) {
+				if (counter[batch[k]] < end[batch[k]]) Push(batch[k]); // otherwise it is retired
+			}
+			if (checkpoint != null && checkpoint.Due()) checkpoint.Save(State());
+		}
+		if (checkpoint != null) checkpoint.Save(State()); // a resumed run finishes at once
+		return solution;
+	}
+	// the sampling, then the bombs are placed, the sampling may find a solution or cover every value
+	private void PlaceBombs() {
+		long all = 1L << numOfBits;
+		// sampling, the first bomb counts from 0
+		long first = 0;
+		double jumps = 0;
+		int sampled = 0;
+		long published = 0; // the values covered by the sampling are published up to here
+		if (o.bombBits < 0) {
+			while (sampled < o.sampleSteps && first < all) {
+				int maxNumberOfX = s.Packed().BestJump(first);
+				if (maxNumberOfX < 0) {
+					SetSolution(first);
+					return;
+				}
+				first = (first | ((1L << maxNumberOfX) - 1)) + 1;
+				jumps += maxNumberOfX;
+				histogram[maxNumberOfX]++;
+				sampled++;
+				if (sampled % SolverMetrics.PUBLISH_STEPS == 0) {
+					Publish(SolverMetrics.PUBLISH_STEPS, first - published);
+					published = first;
 				}
-				//System.out.println("numberOfNotYedSolvedOnes: " + numberOfNotYedSolvedOnes);
 			}
+			steps += sampled;
+			jumpSum += jumps;
+			Publish(sampled % SolverMetrics.PUBLISH_STEPS, Math.min(first, all) - published);
+			if (first >= all) return;
+		}
+		double sampledJump = sampled == 0 ? 0 : jumps / sampled;
+		int bombBits = o.bombBits >= 0 ? o.bombBits : (int) Math.round(sampledJump) + o.stepBits;
+		int fewestBits = numOfBits - (63 - Long.numberOfLeadingZeros(o.maxBombs)); // at most maxBombs
+		bombBits = Math.min(numOfBits, Math.max(bombBits, fewestBits));
+		long size = 1L << bombBits;
+		for (long start = first & -size; start < all; start += size) {
+			NewBomb(Math.max(start, first), start + size, sampledJump, 0);
+		}
+		System.out.println("Number of bombs: " + bombs + " of 2^" + bombBits + " values");
+	}
+	// the bombs of the checkpoint, every value which is not in them is covered
+	private void ResumeBombs() {
+		long left = 0;
+		for (String line : resumed) {
+			String[] fields = line.split(" ");
+			if (!fields[0].equals("bomb")) continue;
+			long from = Long.parseLong(fields[1]), to = Long.parseLong(fields[2]);
+			NewBomb(from, to, Double.parseDouble(fields[3]), Double.parseDouble(fields[4]));
+			left += to - from;
+		}
+		if (metrics != null) metrics.Resume((1L << numOfBits) - left);
+		System.out.println("Resumed " + bombs + " bombs");
+	}
+	// the line "bombs n", then a line "bomb counter end averageJump pass" for each bomb which has
+	// not reached its end, if a solution is found, it is the only bomb
+	private List<String> State() {
+		List<String> lines = new ArrayList<String>();
+		if (solution != null) {
+			lines.add("bombs 1");
+			lines.add("bomb " + solutionCounter + " " + (solutionCounter + 1) + " 0 0");
+			return lines;
+		}
+		lines.add("bombs " + heapSize);
+		for (int i = 0; i < heapSize; i++) {
+			int b = heap[i];
+			lines.add("bomb " + counter[b] + " " + end[b] + " " + averageJump[b] + " " + pass[b]);
+		}
+		return lines;
+	}
+	private void SetSolution(long c) {
+		solution = Clause.ToClause(c).Negate();
+		solutionCounter = c;
+	}
+	// log2 of the values which the bomb b counts in 2^stepBits steps
+	private int StepBits(int b) {
+		return (int) Math.round(averageJump[b]) + o.stepBits;
+	}
+	// the bombs batch[0..n) count at most sliceSteps steps, they are evaluated together
+	private void RunSlice(int[] batch, int n) {
+		int[] active = Arrays.copyOf(batch, n); // the bombs which have not reached their end
+		long[] c = new long[n];
+		int[] best = new int[n];
+		double[] jumps = new double[n];
+		int[] done = new int[n];
+		for (int k = 0; k < n; k++) c[k] = counter[active[k]];
+		int running = n; // active[0..running) run, the retired ones are behind them, already finished
+		for (int step = 0; step < o.sliceSteps && running > 0; step++) {
+			s.Packed().BestJumps(c, running, best);
+			for (int k = 0; k < running; k++) {
+				if (best[k] < 0) { // solution is found
+					if (solution == null) SetSolution(c[k]);
+					continue;
+				}
+				c[k] = (c[k] | ((1L << best[k]) - 1)) + 1;
+				jumps[k] += best[k];
+				histogram[best[k]]++;
+				done[k]++;
+			}
+			if (solution != null) break;
+			for (int k = running - 1; k >= 0; k--) {
+				if (c[k] >= end[active[k]]) { // it is retired, it swaps places with the last running one
+					Finish(active[k], c[k], jumps[k], done[k]);
+					Swap(active, c, jumps, done, k, --running);
+				}
+			}
+		}
+		for (int k = 0; k < running; k++) Finish(active[k], c[k], jumps[k], done[k]);
+		Publish(unpublishedSteps, unpublishedCovered);
+	}
+	// swaps the bombs at i and j of the arrays of RunSlice
+	private static void Swap(int[] active, long[] c, double[] jumps, int[] done, int i, int j) {
+		int b = active[i]; active[i] = active[j]; active[j] = b;
+		long counter = c[i]; c[i] = c[j]; c[j] = counter;
+		double jump = jumps[i]; jumps[i] = jumps[j]; jumps[j] = jump;
+		int d = done[i]; done[i] = done[j]; done[j] = d;
+	}
+	// gives the steps, the covered values and the histogram to metrics, then they start again from 0
+	private void Publish(long newSteps, long covered) {
+		if (metrics != null) metrics.Add(newSteps, covered, histogram);
+		else Arrays.fill(histogram, 0);
+		unpublishedSteps = 0;
+		unpublishedCovered = 0;
+	}
+	// stores the state of the bomb b after a slice
+	private void Finish(int b, long c, double jumps, int done) {
+		unpublishedSteps += done;
+		unpublishedCovered += Math.min(c, end[b]) - counter[b];
+		counter[b] = c;
+		steps += done;
+		jumpSum += jumps;
+		if (done > 0) averageJump[b] = DECAY * averageJump[b] + (1 - DECAY) * jumps / done;
+		pass[b] += 1.0 / (1.0 + averageJump[b]);
+	}
+	private void NewBomb(long start, long stop, double jump, double startPass) {
+		if (bombs == counter.length) {
+			int capacity = bombs * 2;
+			counter = Arrays.copyOf(counter, capacity);
+			end = Arrays.copyOf(end, capacity);
+			averageJump = Arrays.copyOf(averageJump, capacity);
+			pass = Arrays.copyOf(pass, capacity);
+		}
+		counter[bombs] = start;
+		end[bombs] = stop;
+		averageJump[bombs] = jump;
+		pass[bombs] = startPass;
+		Push(bombs++);
+	}
+	private void Push(int b) {
+		if (heapSize == heap.length) heap = Arrays.copyOf(heap, heapSize * 2);
+		int i = heapSize++;
+		while (i > 0 && pass[heap[(i - 1) / 2]] > pass[b]) {
+			heap[i] = heap[(i - 1) / 2];
+			i = (i - 1) / 2;
+		}
+		heap[i] = b;
+	}
+	private int Pop() {
+		int top = heap[0];
+		int last = heap[--heapSize];
+		int i = 0;
+		while (2 * i + 1 < heapSize) {
+			int child = 2 * i + 1;
+			if (child + 1 < heapSize && pass[heap[child + 1]] < pass[heap[child]]) child++;
+			if (pass[heap[child]] >= pass[last]) break;
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = last;
+		return top;
+	}
+	public long Steps() { return steps; }
+	// copies of the positions and the ends of the bombs for SolverMetrics, they are read by
+	// another thread while the bombs run, so they may be a slice behind
+	public long[] BombCounters() {
+		long[] c = counter;
+		return Arrays.copyOf(c, Math.min(bombs, c.length));
+	}
+	public long[] BombEnds() {
+		long[] e = end;
+		return Arrays.copyOf(e, Math.min(bombs, e.length));
+	}
+	public double AverageJump() { return steps == 0 ? 0 : jumpSum / steps; }
+	public String Statistics() {
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+		return String.format("Bombs: %d (%d by splitting), steps: %d, average jump: %.2f, %.3g steps per second",
+				bombs, splits, steps, AverageJump(), steps / Math.max(seconds, 1e-9));
+	}
+}
+/**
+ * The progress of the bombs: BombScheduler counts the jumps in a histogram, and it gives the
+ * steps, the values covered by the bombs and the histogram to Add after the sampling and after
+ * every slice. The bombs cover 2^numOfBits values together, so the covered values / 2^numOfBits
+ * is the part of the work done, and the ETA is the time left at the average speed so far.
+ * A satisfiable problem may stop much sooner.
+ * The state of each bomb is read from the scheduler when it is asked.
+ * Register makes it a JMX MBean, cccsat:type=SolverMetrics, StartLog prints it periodically.
+ */
+class SolverMetrics implements DynamicMBean {
+	static final int PUBLISH_STEPS = 1 << 12;
+	private static final String[][] ATTRIBUTES = { // name, type, description
+		{ "Counter", "long", "the values covered by the bombs so far" },
+		{ "NumOfBits", "int", "the counter goes from 0 to 2^NumOfBits" },
+		{ "PercentCovered", "double", "the percent of the values covered so far" },
+		{ "Steps", "long", "the steps of the counter so far" },
+		{ "StepsPerSecond", "double", "the average speed so far" },
+		{ "AverageJump", "double", "the average jump of a step, a jump of j skips 2^j values" },
+		{ "JumpHistogram", "[J", "the number of steps of each jump" },
+		{ "TestedPerStep", "double", "the clauses tested per step" },
+		{ "Bombs", "int", "the bombs started so far" },
+		{ "LiveBombs", "int", "the bombs which have not reached their end" },
+		{ "BombCounters", "[J", "the position of each bomb" },
+		{ "BombEnds", "[J", "the end of each bomb" },
+		{ "ElapsedSeconds", "double", "the time since the start" },
+		{ "EtaSeconds", "double", "the time left at the average speed so far, -1 if it is not known yet" },
+		{ "Finished", "boolean", "the solver stopped" } };
+	private final int numOfBits;
+	private final BombScheduler scheduler;
+	private final double testedPerStep;
+	private final long startTime = System.nanoTime();
+	private long covered = 0, steps = 0, jumpSum = 0;
+	private long resumed = 0; // the values covered by an earlier run, see Checkpoint
+	private final long[] histogram = new long[64];
+	private boolean finished = false;
+	private ObjectName name;
+	private Timer timer;
+	public SolverMetrics(int numOfBits, BombScheduler scheduler, double testedPerStep) {
+		this.numOfBits = numOfBits;
+		this.scheduler = scheduler;
+		this.testedPerStep = testedPerStep;
+	}
+	// the solver did steps steps, and covered covered values since its last call,
+	// the jumps of those steps are added to the histogram, and jumps is cleared
+	public synchronized void Add(long steps, long covered, long[] jumps) {
+		this.steps += steps;
+		this.covered += covered;
+		for (int j = 0; j < jumps.length; j++) {
+			histogram[j] += jumps[j];
+			jumpSum += j * jumps[j];
+			jumps[j] = 0;
+		}
+	}
+	// the bombs go on from a checkpoint, the values covered before do not count in the speed
+	public synchronized void Resume(long covered) {
+		this.covered += covered;
+		resumed += covered;
+	}
+	public void Register(String solver) {
+		try {
+			name = new ObjectName("cccsat:type=SolverMetrics,name=" + solver);
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+		} catch (JMException e) {
+			System.out.println("The metrics could not be registered: " + e);
+			name = null;
+		}
+	}
+	public void StartLog(int seconds) {
+		timer = new Timer("progress", true);
+		timer.scheduleAtFixedRate(new TimerTask() {
+			@Override
+			public void run() { System.out.println(ProgressLine()); }
+		}, seconds * 1000L, seconds * 1000L);
+	}
+	// the solver stopped, the log stops, and the MBean is unregistered
+	public void Close() {
+		synchronized (this) {
+			finished = true;
 		}
-		return null;
+		if (timer != null) timer.cancel();
+		if (name != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+			} catch (JMException e) { System.out.println(e); }
+		}
+	}
+	public synchronized double PercentCovered() {
+		return 100.0 * Math.scalb((double) covered, -numOfBits);
+	}
+	private double Seconds() {
+		return (System.nanoTime() - startTime) / 1e9;
+	}
+	public synchronized double Eta() {
+		double done = Math.scalb((double) covered, -numOfBits);
+		double doneNow = Math.scalb((double) (covered - resumed), -numOfBits); // by this run
+		return doneNow <= 0 ? -1 : Seconds() * (1 - done) / doneNow;
+	}
+	// the bombs which have not reached their end
+	public int LiveBombs() {
+		long[] counters = scheduler.BombCounters(), ends = scheduler.BombEnds();
+		int live = 0;
+		for (int b = 0; b < Math.min(counters.length, ends.length); b++) {
+			if (counters[b] < ends[b]) live++;
+		}
+		return live;
+	}
+	public synchronized String ProgressLine() {
+		double seconds = Seconds();
+		double eta = Eta();
+		return String.format("Progress: %.4f%% of 2^%d, %d live bombs, %d steps, %.3g steps per second, average jump %.2f, ETA %s",
+				PercentCovered(), numOfBits, LiveBombs(), steps, steps / Math.max(seconds, 1e-9),
+				steps == 0 ? 0.0 : (double) jumpSum / steps, eta < 0 ? "unknown" : Duration(eta));
+	}
+	private static String Duration(double seconds) {
+		long s = Math.round(seconds);
+		if (s < 60) return s + " s";
+		if (s < 3600) return s / 60 + " min " + s % 60 + " s";
+		return s / 3600 + " h " + s % 3600 / 60 + " min";
+	}
+	// the wall time of the run, and the CPU time of the process
+	public static String TimeLine(long wallMillis) {
+		Optional<java.time.Duration> cpu = ProcessHandle.current().info().totalCpuDuration();
+		return "Wall time is " + wallMillis / 1000.0f + " s"
+				+ (cpu.isPresent() ? ", CPU time is " + cpu.get().toMillis() / 1000.0f + " s" : "");
+	}
+	@Override
+	public synchronized Object getAttribute(String attribute) throws AttributeNotFoundException {
+		switch (attribute) {
+		case "Counter": return covered;
+		case "NumOfBits": return numOfBits;
+		case "PercentCovered": return PercentCovered();
+		case "Steps": return steps;
+		case "StepsPerSecond": return steps / Math.max(Seconds(), 1e-9);
+		case "AverageJump": return steps == 0 ? 0.0 : (double) jumpSum / steps;
+		case "JumpHistogram": return histogram.clone();
+		case "TestedPerStep": return testedPerStep;
+		case "Bombs": return scheduler.BombCounters().length;
+		case "LiveBombs": return LiveBombs();
+		case "BombCounters": return scheduler.BombCounters();
+		case "BombEnds": return scheduler.BombEnds();
+		case "ElapsedSeconds": return Seconds();
+		case "EtaSeconds": return Eta();
+		case "Finished": return finished;
+		default: throw new AttributeNotFoundException(attribute);
+		}
+	}
+	@Override
+	public AttributeList getAttributes(String[] attributes) {
+		AttributeList list = new AttributeList();
+		for (String a : attributes) {
+			try {
+				list.add(new Attribute(a, getAttribute(a)));
+			} catch (AttributeNotFoundException e) { } // the unknown ones are left out
+		}
+		return list;
+	}
+	@Override
+	public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+		throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+	}
+	@Override
+	public AttributeList setAttributes(AttributeList attributes) {
+		return new AttributeList(); // every attribute is read-only
+	}
+	@Override
+	public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+		throw new ReflectionException(new NoSuchMethodException(actionName));
+	}
+	@Override
+	public MBeanInfo getMBeanInfo() {
+		MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[ATTRIBUTES.length];
+		for (int i = 0; i < ATTRIBUTES.length; i++) {
+			attributes[i] = new MBeanAttributeInfo(ATTRIBUTES[i][0], ATTRIBUTES[i][1], ATTRIBUTES[i][2], true, false, false);
+		}
+		return new MBeanInfo(getClass().getName(), "The progress of the bombs", attributes, null, null, null);
+	}
+}
+/**
+ * Crash-safe checkpoints of the bombs. The whole state of BombScheduler is the bombs which have
+ * not reached their end: every value which is not in them is covered, so a new run can go on
+ * with them.
+ * The file is text:
+ *   c comment lines
+ *   fingerprint f    of the clauses, see Fingerprint
+ *   bombs n          then n lines of the bombs, see BombScheduler.State, no bombs if the run is finished
+ * It is written into file.tmp, synced to the disk, then moved over the file atomically, so the
+ * file is either the old or the new checkpoint, even if the process is killed meanwhile.
+ * Due is just a clock read, so the solver can ask it in its loop, and a checkpoint is saved at
+ * most once in the given seconds.
+ */
+class Checkpoint {
+	private final Path file, temporary;
+	private final String fingerprint;
+	private final long period; // in nanoseconds
+	private long last = System.nanoTime();
+	public Checkpoint(String fileName, ClauseSet s, int seconds) {
+		file = Paths.get(fileName);
+		temporary = Paths.get(fileName + ".tmp");
+		fingerprint = Fingerprint(s);
+		period = seconds * 1_000_000_000L;
+	}
+	public boolean Due() {
+		return System.nanoTime() - last >= period;
+	}
+	// the lines of the state are written after the fingerprint, an error is reported, but the
+	// solver goes on, maybe the next checkpoint can be saved
+	public void Save(List<String> state) {
+		last = System.nanoTime();
+		try (FileOutputStream out = new FileOutputStream(temporary.toFile())) {
+			StringBuilder text = new StringBuilder("c checkpoint of CCCBomberv1Dot0\n");
+			text.append("fingerprint ").append(fingerprint).append('\n');
+			for (String line : state) text.append(line).append('\n');
+			out.write(text.toString().getBytes("US-ASCII"));
+			out.getFD().sync();
+		} catch (IOException e) {
+			System.out.println("The checkpoint could not be written: " + e);
+			return;
+		}
+		try {
+			Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) { System.out.println("The checkpoint could not be written: " + e); }
+	}
+	// the lines of the state, or null if there is no checkpoint yet
+	// a SolverException tells if it can not be read, or if it belongs to other clauses
+	public List<String> Load() {
+		List<String> lines;
+		try {
+			lines = Files.readAllLines(file);
+		} catch (NoSuchFileException e) {
+			System.out.println("There is no checkpoint in " + file + " yet, it starts from the beginning.");
+			return null;
+		} catch (IOException e) { throw new SolverException(e.toString(), e); }
+		List<String> state = new ArrayList<String>();
+		String found = null;
+		for (String line : lines) {
+			if (line.equals("c") || line.startsWith("c ")) continue;
+			if (line.startsWith("fingerprint ")) found = line.substring(12).trim();
+			else state.add(line);
+		}
+		if (!fingerprint.equals(found)) {
+			throw new SolverException(file + " is the checkpoint of other clauses, or of other options.");
+		}
+		long bombs = state.stream().filter(line -> line.startsWith("bomb ")).count();
+		if (state.isEmpty() || !state.get(0).equals("bombs " + bombs)) {
+			throw new SolverException(file + " is not a checkpoint of the bombs.");
+		}
+		System.out.println("Resumed from " + file);
+		return state;
+	}
+	// the number of bits, the number of clauses, and a 128 bit hash of the clauses, it does not
+	// depend on the order of the clauses, but it does on the order of the variables
+	static String Fingerprint(ClauseSet s) {
+		PackedClauses p = s.Packed();
+		long sum = 0, xor = 0;
+		for (int i = 0; i < p.size; i++) {
+			long h = Mix(p.mask[i] * 0x9E3779B97F4A7C15L + p.bits[i]);
+			sum += h;
+			xor ^= Mix(h ^ 0x632BE59BD9B4E019L);
+		}
+		return String.format("%d-%d-%016x%016x", global.getNumOfBits(), p.size, sum, xor);
+	}
+	// the finalizer of SplitMix64
+	private static long Mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
 	}
 }
 /**
@@ -119,6 +707,7 @@ class SATCounter {
  */
 class ClauseSet {
 	List<Clause> clauses;
+	private PackedClauses packed; // built on demand from clauses
 	// reads a DIMACS file
 	public ClauseSet(String fileName) {
 		clauses = new ArrayList<Clause>();
@@ -172,6 +761,66 @@ class ClauseSet {
 		}
 		return subsumers;
 	}
+	// returns the packed copy of the clauses, it is rebuilt if clauses were added since the last call
+	public PackedClauses Packed() {
+		if (packed == null || packed.size != clauses.size()) packed = new PackedClauses(clauses);
+		return packed;
+	}
+	// returns the biggest NumberOfXFromRight of the subsumers of c, or -1 if c has no subsumer
+	// it does the same as SubsumersOfClearClause and the selection of the best subsumer together,
+	// but it does not create any list
+	public int BestJumpOfClearClause(ClearClause c) {
+		return Packed().BestJump(c.bits);
+	}
+}
+/**
+ * Packed copy of a clause list, stored as parallel arrays instead of Clause objects.
+ * mask[i] and bits[i] are the same as in the i.-th Clause,
+ * jump[i] is the precomputed NumberOfXFromRight of the i.-th Clause.
+ */
+class PackedClauses {
+	private static final int TILE = 1024; // clauses in a tile of BestJumps, 17 KB
+	final long[] mask, bits;
+	final byte[] jump;
+	final int size;
+	public PackedClauses(List<Clause> clauses) {
+		size = clauses.size();
+		mask = new long[size];
+		bits = new long[size];
+		jump = new byte[size];
+		for (int i = 0; i < size; i++) {
+			Clause c = clauses.get(i);
+			mask[i] = c.mask;
+			bits[i] = c.bits;
+			jump[i] = c.NumberOfXFromRight();
+		}
+	}
+	// one pass over the arrays, it returns the biggest jump of the clauses which subsume counter,
+	// or -1 if there is no such clause
+	public int BestJump(long counter) {
+		int best = -1;
+		for (int i = 0; i < size; i++) {
+			if ((counter & mask[i]) == bits[i] && jump[i] > best) best = jump[i];
+		}
+		return best;
+	}
+	// the same as BestJump for the counters[0..n), best[k] is the jump of counters[k]
+	// the clauses are tested in tiles, a tile is read once from the memory for all the counters,
+	// then it is tested again and again from the cache
+	public void BestJumps(long[] counters, int n, int[] best) {
+		Arrays.fill(best, 0, n, -1);
+		for (int from = 0; from < size; from += TILE) {
+			int to = Math.min(size, from + TILE);
+			for (int k = 0; k < n; k++) {
+				long counter = counters[k];
+				int b = best[k];
+				for (int i = from; i < to; i++) {
+					if ((counter & mask[i]) == bits[i] && jump[i] > b) b = jump[i];
+				}
+				best[k] = b;
+			}
+		}
+	}
 }
 /**
  * This class represents a clause, a set of literals.
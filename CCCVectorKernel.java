@@ -0,0 +1,53 @@
+import java.util.function.LongToIntFunction;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+/**
+ * Count Clear Clauses SAT Solver, SIMD kernel for the subsumer scan of CCC_v1Dot1.
+ * Free for any purpose, but please cite our contribution.
+ * See also: Solving SAT by an Iterative Version of the Inclusion-Exclusion Principle
+ *
+ * It uses the incubating JDK Vector API, so it has to be compiled and run with
+ * --add-modules jdk.incubator.vector
+ * CCC_v1Dot1 loads this class only if it is started with the option -engine simd,
+ * otherwise this file is not needed.
+ */
+public class CCCVectorKernel implements LongToIntFunction {
+	private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+	// the same as PackedClauses in CCC_v1Dot1, but jump is widened to long, so it fits in the lanes,
+	// and the arrays are padded to a multiple of the vector length
+	private final long[] mask, bits, jump;
+	public CCCVectorKernel(long[] mask, long[] bits, byte[] jump, int size) {
+		int length = SPECIES.loopBound(size + SPECIES.length() - 1);
+		this.mask = new long[length];
+		this.bits = new long[length];
+		this.jump = new long[length];
+		for (int i = 0; i < length; i++) {
+			if (i < size) {
+				this.mask[i] = mask[i];
+				this.bits[i] = bits[i];
+				this.jump[i] = jump[i];
+			} else {
+				this.bits[i] = 1L; // (0,1) is never used by a clause, so a padding lane never matches
+			}
+		}
+	}
+	// returns the biggest jump of the clauses which subsume counter, or -1 if there is no such clause
+	@Override
+	public int applyAsInt(long counter) {
+		LongVector c = LongVector.broadcast(SPECIES, counter);
+		LongVector best = LongVector.broadcast(SPECIES, -1L);
+		for (int i = 0; i < mask.length; i += SPECIES.length()) {
+			LongVector m = LongVector.fromArray(SPECIES, mask, i);
+			LongVector b = LongVector.fromArray(SPECIES, bits, i);
+			VectorMask<Long> subsumers = c.and(m).compare(VectorOperators.EQ, b);
+			best = best.lanewise(VectorOperators.MAX, LongVector.fromArray(SPECIES, jump, i), subsumers);
+		}
+		return (int) best.reduceLanes(VectorOperators.MAX);
+	}
+	// the number of clauses tested by one instruction
+	public static int Lanes() {
+		return SPECIES.length();
+	}
+}
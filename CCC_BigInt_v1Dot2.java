@@ -1,16 +1,18 @@
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.io.*;
-import java.math.BigInteger;
 
 /**
- * Count Clear Clauses SAT Solver, Java version, based on BigInteger, v1.2
+ * Count Clear Clauses SAT Solver, Java version, for any number of variables, v1.2
+ * The clauses and the counter are arrays of long words, the number of words is set by the p line.
  * Free for any purpose, but please cite our contribution.
  * See also: Solving SAT by an Iterative Version of the Inclusion-Exclusion Principle
  */
 
 class global {
 	public static int numOfBits = 100;
+	public static int words = 2; // the long words of a clause, the counter needs numOfBits + 1 bits
 	static void setNumberOfBits(String pLine)
 	{
 		int i = 2;
@@ -23,6 +25,7 @@ class global {
             i++;
         }
         numOfBits = Integer.parseInt(numberOfVariables);
+        words = numOfBits / 64 + 1;
 	}
 }
 
@@ -53,51 +56,33 @@ public class CCC_BigInt_v1Dot2
             		System.out.println("Satisfiable! A solution is:");
             		System.out.println(solution);
             	}
-                System.out.println("CPU time is " + (endTime - startTime)/1000.0f + " s");
+                System.out.println(TimeLine(endTime - startTime));
             }
         }
+
+        // the wall time of the solve, and the CPU time of the process, if the platform tells it
+        static String TimeLine(long wallMillis)
+        {
+            Optional<java.time.Duration> cpu = ProcessHandle.current().info().totalCpuDuration();
+            return "Wall time is " + wallMillis / 1000.0f + " s"
+                    + (cpu.isPresent() ? ", CPU time is " + cpu.get().toMillis() / 1000.0f + " s" : "");
+        }
 }
 
     class SATCounter
     {
         public static Clause SolveFrom0(ClauseSet s)
         {
-        	ClearClause counter = new ClearClause(global.numOfBits);
-        	//long counter2 = 0;
-        	//System.out.println("biginteger counter: " + counter);
-        	//System.out.println("biginteger counter mask: " + counter.mask);
-        	//System.out.println("biginteger counter bits: " + counter.bits);
-        	//System.out.println("counter2: " + counter2);
-
-            List<Clause> subsumers = s.SubsumersOfClearClause(counter);
-            while (!subsumers.isEmpty())
+            PackedClauses p = s.Packed();
+            ClearClause counter = new ClearClause(global.numOfBits);
+            int maxNumberOfX = p.BestJump(counter.bits); // jump of the best subsumer
+            while (maxNumberOfX >= 0)
             {
-                int maxNumberOfX = 0;
-                for (Clause subsumer: subsumers){
-                    int currentNumberOfX = subsumer.NumberOfXFromRight();
-                    if (currentNumberOfX > maxNumberOfX)
-                    {
-                    	maxNumberOfX = currentNumberOfX;
-                    	//System.out.println("subsumer: " + subsumer);
-                    }
-                }
-                BigInteger toAdd = BigInteger.ZERO.setBit(maxNumberOfX);
-                
-                //System.out.println("biginteger toAdd: " + toAdd);
-                //System.out.println("biginteger counter mask: " + counter.mask);
-            	//System.out.println("biginteger counter bits: " + counter.bits);
-	        	//counter2 += toAdd.longValue();
-	        	//System.out.println("counter2: " + counter2);
-
-				counter.add(toAdd);
-	        	//System.out.println("biginteger counter: " + counter);
-	        	//System.out.println("biginteger counter bits: " + counter.bits.bitCount());
-	        	//System.out.println("counter2: " + counter2);
-
+                counter.add(maxNumberOfX);
                 if (counter.testBit(global.numOfBits)) {
                     return null;
-                }   
-                subsumers = s.SubsumersOfClearClause(counter);
+                }
+                maxNumberOfX = p.BestJump(counter.bits);
             }
             return counter.Negate();
         }
@@ -105,6 +90,7 @@ public class CCC_BigInt_v1Dot2
     class ClauseSet
     {
         List<Clause> clauses;
+        private PackedClauses packed;
         public ClauseSet(String fileName)
         {
             clauses = new ArrayList<Clause>();
@@ -163,48 +149,107 @@ public class CCC_BigInt_v1Dot2
             }
             return subsumers;
         }
+        // the packed copy of the clauses, it is rebuilt if clauses were added since the last call
+        public PackedClauses Packed()
+        {
+            if (packed == null || packed.size != clauses.size()) packed = new PackedClauses(clauses);
+            return packed;
+        }
+    }
+    /**
+     * The words of all the clauses in two long arrays, the words of the i.-th clause are
+     * [i * words, (i + 1) * words), jump[i] is the NumberOfXFromRight of the i.-th clause.
+     */
+    class PackedClauses
+    {
+        final int size, words;
+        final long[] mask, bits;
+        final int[] jump;
+        public PackedClauses(List<Clause> clauses)
+        {
+            size = clauses.size();
+            words = global.words;
+            mask = new long[size * words];
+            bits = new long[size * words];
+            jump = new int[size];
+            for (int i = 0; i < size; i++) {
+                Clause c = clauses.get(i);
+                System.arraycopy(c.mask, 0, mask, i * words, words);
+                System.arraycopy(c.bits, 0, bits, i * words, words);
+                jump[i] = c.NumberOfXFromRight();
+            }
+        }
+        // returns the biggest jump of the clauses which subsume counter, or -1 if there is no such clause
+        // a clause is tested only if its jump is bigger than the best one so far
+        public int BestJump(long[] counter)
+        {
+            int best = -1;
+            if (words == 1) { // up to 63 variables, the same as the long version
+                long c = counter[0];
+                for (int i = 0; i < size; i++) {
+                    if (jump[i] > best && (c & mask[i]) == bits[i]) best = jump[i];
+                }
+                return best;
+            }
+            for (int i = 0, base = 0; i < size; i++, base += words) {
+                if (jump[i] <= best) continue;
+                int w = 0;
+                while (w < words && (counter[w] & mask[base + w]) == bits[base + w]) w++;
+                if (w == words) best = jump[i];
+            }
+            return best;
+        }
     }
+    /**
+     * A clause of any number of variables, the bits are kept in arrays of long words,
+     * bit i is bit i % 64 of the word i / 64. The meaning of mask and bits is the same
+     * as in the long version, see CCC_v1Dot1.
+     */
     class Clause
     {
-        protected BigInteger mask, bits;
-        public Clause() { mask = BigInteger.ZERO; bits = BigInteger.ZERO; }
+        protected long[] mask, bits;
+        public Clause() { mask = new long[global.words]; bits = new long[global.words]; }
 
         public void SetLiteralZeroBased(int literal)
         {
             int index = global.numOfBits - Math.abs(literal);
-            mask = mask.setBit(index);
-            if (literal > 0) bits = bits.setBit(index);
+            mask[index >>> 6] |= 1L << index;
+            if (literal > 0) bits[index >>> 6] |= 1L << index;
+        }
+        public boolean testBit(int n) {
+            return (bits[n >>> 6] & (1L << n)) != 0;
         }
         public Clause Negate() {
             Clause c = new Clause();
-            c.mask = this.mask;
-            c.bits = this.bits.not();
-            c.bits = c.bits.and(c.mask);
+            for (int w = 0; w < mask.length; w++) {
+                c.mask[w] = this.mask[w];
+                c.bits[w] = ~this.bits[w] & this.mask[w];
+            }
             return c;
         }
+        // checks whether this subsumes the input clause or not
         public boolean Subsumes(Clause b) {
-            if (mask.compareTo(b.mask) > 0) return false;
-            BigInteger cMask = mask.and(b.mask);
-            BigInteger bitsAndcMask = bits.and(cMask);
-            BigInteger b_bitsAndcMask = b.bits.and(cMask);
-            return bitsAndcMask.compareTo(b_bitsAndcMask) == 0 ? true : false;
+            for (int w = 0; w < mask.length; w++) {
+                if ((mask[w] & ~b.mask[w]) != 0) return false;
+                if ((bits[w] & mask[w]) != (b.bits[w] & mask[w])) return false;
+            }
+            return true;
         }
+        // the number of variables which are not present after the last literal,
+        // it is numOfBits for the empty clause
         public int NumberOfXFromRight() {
-        	//System.out.println("NumberOfXFromRight");
-        	//System.out.println("mask: " + mask);
-        	//System.out.println("bits: " + bits);
-        	//System.out.println("this: " + this);
-        	//System.out.println("mask.getLowestSetBit(): " + mask.getLowestSetBit());
-        	
-            return mask.getLowestSetBit();
+            for (int w = 0; w < mask.length; w++) {
+                if (mask[w] != 0) return Math.min(64 * w + Long.numberOfTrailingZeros(mask[w]), global.numOfBits);
+            }
+            return global.numOfBits;
         }
         @Override
         public String toString() {
             StringBuilder s = new StringBuilder();	
             for (int i = global.numOfBits-1; i >= 0; i--) {
-                if (mask.testBit(i)) {
+                if ((mask[i >>> 6] & (1L << i)) != 0) {
                     int literal = global.numOfBits - i;
-                    if (bits.testBit(i)) s.append(literal);
+                    if (testBit(i)) s.append(literal);
                     else s.append(-literal);
                     s.append(' ');
                 }
@@ -213,6 +258,10 @@ public class CCC_BigInt_v1Dot2
             return s.toString();
         }
     }
+    /**
+     * The counter, it counts on the bits 0..numOfBits, bit numOfBits is set when the counting is over.
+     * It is changed in place, it does not allocate.
+     */
     class ClearClause extends Clause
     {
     	final int numOfBits;
@@ -220,23 +269,25 @@ public class CCC_BigInt_v1Dot2
     	{
     		super();
     		numOfBits = numOfVariables+1;
-    		mask = BigInteger.ONE.shiftLeft(numOfBits);
-    		mask = mask.subtract(BigInteger.ONE);
-    	}
-    	public void add(BigInteger toAdd)
-    	{
-    		bits = bits.add(toAdd);
+    		for (int i = 0; i < numOfBits; i++) mask[i >>> 6] |= 1L << i;
     	}
-    	public boolean testBit(int n)
+    	// adds 2^numberOfX, the carry goes on to the higher words
+    	public void add(int numberOfX)
     	{
-    		return bits.testBit(n);
+    		int w = numberOfX >>> 6;
+    		long old = bits[w];
+    		bits[w] += 1L << numberOfX;
+    		if (Long.compareUnsigned(bits[w], old) >= 0) return;
+    		for (w++; w < bits.length; w++) {
+    			if (++bits[w] != 0) return;
+    		}
     	}
+    	// checks whether this clear clause is subsumed by the input clause or not
+    	// word by word, it stops at the first word which differs
     	public boolean isSubsumedBy(Clause b) {
-            //BigInteger cMask = b.mask;
-            //BigInteger bitsAndcMask = bits.and(cMask);
-            //BigInteger b_bitsAndcMask = b.bits.and(cMask);
-            //return bitsAndcMask.compareTo(b_bitsAndcMask) == 0 ? true : false;
-    		BigInteger bitsAndbMask = bits.and(b.mask);
-            return bitsAndbMask.compareTo(b.bits) == 0 ? true : false;
+    		for (int w = 0; w < bits.length; w++) {
+    			if ((bits[w] & b.mask[w]) != b.bits[w]) return false;
+    		}
+    		return true;
         }
     }
@@ -1,58 +1,331 @@
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongToIntFunction;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 import java.io.*;
+import java.lang.management.ManagementFactory;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.DirectoryStream;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.math.BigInteger;
 /**
  * Count Clear Clauses SAT Solver, Java version, v1.1
  * Free for any purpose, but please cite our contribution.
  * See also: Solving SAT by an Iterative Version of the Inclusion-Exclusion Principle
  */
 // serves as the global access point for number of bits which read from the p line of DIMACS
+// it belongs to the current thread, so solves of different widths can run at the same time,
+// the thread which solves a clause set has to set its width, see CCCSolver
 class global {
-	private static int numOfBits = 62; // may not be bigger than 62
-	public static int getNumOfBits() { return numOfBits; }
-	static void setNumberOfBits(String pLine)
+	private static final ThreadLocal<Integer> numOfBits = ThreadLocal.withInitial(() -> 62); // may not be bigger than 62
+	public static int getNumOfBits() { return numOfBits.get(); }
+	// a preprocessing step may need fewer bits than the p line
+	static void setNumberOfBits(int n) { numOfBits.set(n); }
+	// the number of variables of the p line
+	static void setNumberOfVariables(int n)
 	{
-		int i = 2;
-        while (pLine.charAt(i) == ' ') i++;
-        while (i < pLine.length() && pLine.charAt(i) != ' ') i++; 
-        while (pLine.charAt(i) == ' ') i++;
-        String numberOfVariables = "";
-        while (i < pLine.length() && pLine.charAt(i) != ' ') {
-        	numberOfVariables += pLine.charAt(i);
-            i++;
-        }
-        numOfBits = Integer.parseInt(numberOfVariables);
-        if (numOfBits > 62)
+        if (n > 62)
         {
-        	System.out.println("The DIMACS file may not contain more than 62 variables.");
-        	System.out.println("See the line which starts with p. The first number is the number of variables.");
-        	System.exit(-1);
+        	throw new SolverException("The DIMACS file may not contain more than 62 variables.\n"
+        			+ "See the line which starts with p. The first number is the number of variables.");
         }
+        numOfBits.set(n);
+	}
+}
+/**
+ * An error of the input, or of the files of the solver, the message tells it to the user.
+ * The command line prints it and exits, a program using CCCSolver may go on with other problems.
+ */
+class SolverException extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+	public SolverException(String message) {
+		super(message);
+	}
+	public SolverException(String message, Throwable cause) {
+		super(message, cause);
 	}
 }
 // this is the main class, it calls the solver
 public class CCC_v1Dot1 {
 	public static void main(String[] args) {
+		try {
+			Run(args);
+		} catch (SolverException e) {
+			System.out.println(e.getMessage());
+			System.exit(-1);
+		}
+	}
+	private static void Run(String[] args) {
 		long startTime = System.currentTimeMillis();
 		long endTime;
-		System.out.println("SATCounter: Count Clear Clauses SAT Solver");
-		if (args.length != 1) {
-			System.out.println("Start it with a DIMACS file as a parameter.");
-			System.out.println("The DIMACS file may not contain more than 62 variables.");
+		Options options = Options.Parse(args);
+		// the records of a batch may go to System.out, so every other line goes to System.err then
+		PrintStream log = options != null && options.batch ? System.err : System.out;
+		log.println("SATCounter: Count Clear Clauses SAT Solver");
+		if (options == null) {
+			Options.PrintUsage();
+		} else if (options.batch) {
+			new BatchSolver(options).Run();
 		} else {
-			String fileName = args[0];
-			ClauseSet s = new ClauseSet(fileName);
-			Clause solution = SATCounter.SolveFrom0(s); // it calls the solver
+			ClauseSet s;
+			boolean compiled = CompiledCnf.IsCompiled(options.fileName);
+			if (options.eliminate >= 0 && compiled) {
+				System.out.println("Variable elimination needs a DIMACS file, it is not used.");
+				s = new ClauseSet(new CompiledCnf(options.fileName));
+			} else if (compiled) {
+				s = new ClauseSet(new CompiledCnf(options.fileName));
+			} else if (options.eliminate >= 0 && !options.count && !options.enumerate) {
+				VariableEliminator eliminator = new VariableEliminator(options.eliminate);
+				s = eliminator.Eliminate(DimacsFile.Read(options.fileName));
+				System.out.println(eliminator.Statistics());
+			} else {
+				if (options.eliminate >= 0) System.out.println("Variable elimination changes the models, it is not used.");
+				s = new ClauseSet(options.fileName);
+			}
+			if (s.warning != null) System.err.println(s.warning);
+			if (options.compileFile != null) {
+				CompiledCnf.Save(s, options.compileFile);
+				System.out.println("Compiled " + s.clauses.size() + " clauses into " + options.compileFile);
+				return;
+			}
+			if (options.simplify) {
+				Simplifier simplifier = new Simplifier(options.count || options.enumerate);
+				simplifier.Simplify(s);
+				System.out.println(simplifier.Statistics());
+			}
+			int[] order = VariableOrder.ByName(s, options.order);
+			if (order != null) s.Reorder(order);
+			s.SetEngine(options.engine);
+			if (options.checkSteps > 0) SATCounter.CrossCheck(s, options.checkSteps);
+			ComponentSolver components = null;
+			if (options.components) {
+				components = new ComponentSolver(s);
+				System.out.println(components.Statistics());
+			}
+			if (options.count || options.enumerate) {
+				Count(s, options, components);
+				return;
+			}
+			// the engine which does the steps, the components and the threads have engines of their own
+			EngineGroup engines = null;
+			if (components != null) engines = components.Engines();
+			else if (options.threads > 1) engines = new EngineGroup(s::NewEngine);
+			SubsumerEngine engine = engines != null ? engines : s.Engine();
+			SolverMetrics metrics = new SolverMetrics(global.getNumOfBits(), engine);
+			if (options.jmx) metrics.Register("CCC_v1Dot1");
+			if (options.progressSeconds > 0) metrics.StartLog(options.progressSeconds);
+			Checkpoint checkpoint = null;
+			long from = 0;
+			if (options.checkpointFile != null) {
+				checkpoint = new Checkpoint(options.checkpointFile, s, options.checkpointSeconds);
+				if (options.resume) from = checkpoint.LoadCounter();
+			}
+			Clause solution; // it calls the solver
+			if (components != null) solution = components.Solve(options.threads, metrics);
+			else if (options.threads > 1) solution = SATCounter.SolveParallel(s, options.threads, engines, metrics);
+			else if (options.learn > 0) {
+				LearningSolver learner = new LearningSolver(s, options.learn);
+				solution = learner.Solve(metrics);
+				System.out.println(learner.Statistics());
+			}
+			else solution = SATCounter.SolveFrom(s, from, metrics, checkpoint);
+			metrics.Close();
 			if (solution == null) {
 				endTime = System.currentTimeMillis();
 				System.out.println("Unsatisfiable!");
 			} else {
 				endTime = System.currentTimeMillis();
 				System.out.println("Satisfiable! A solution is:");
-				System.out.println(solution);
+				System.out.println(s.ToDimacs(solution));
+			}
+			String statistics = components != null ? components.EngineStatistics() : engine.Statistics();
+			if (statistics != null) System.out.println(statistics);
+			System.out.println(SolverMetrics.TimeLine(endTime - startTime));
+		}
+	}
+	// the -count and -enumerate modes
+	// the components are used only if the models are just counted, without limit
+	private static void Count(ClauseSet s, Options options, ComponentSolver components) {
+		long startTime = System.currentTimeMillis();
+		PrintStream out = System.out;
+		try {
+			if (options.enumerate && options.enumerateFile != null) {
+				out = new PrintStream(new BufferedOutputStream(new FileOutputStream(options.enumerateFile)));
 			}
-			System.out.println("CPU time is " + (endTime - startTime) / 1000.0f + " s");
+		} catch (IOException e) { throw new SolverException(e.toString(), e); }
+		PrintStream sinkStream = out;
+		Consumer<Clause> sink = options.enumerate ? c -> sinkStream.println(s.ToDimacs(c)) : null;
+		BigInteger count;
+		if (components != null && !options.enumerate && options.limit <= 0) count = components.Count(options.threads);
+		else count = SATCounter.Count(s, sink, options.limit);
+		if (out != System.out) out.close();
+		boolean limited = options.limit > 0 && count.compareTo(BigInteger.valueOf(options.limit)) >= 0;
+		System.out.println("Number of models: " + (limited ? "at least " : "") + count);
+		System.out.println(SolverMetrics.TimeLine(System.currentTimeMillis() - startTime));
+	}
+}
+/**
+ * The command line of CCC_v1Dot1: [options] a_cnf_file
+ */
+class Options {
+	String fileName;
+	String engine = "scalar"; // see ClauseSet.SetEngine
+	int checkSteps = 0; // if it is positive, the engine is compared with the scalar one before solving
+	int threads = 0; // if it is not given, it is 1, or the number of processors in -batch
+	boolean count = false; // counts the models
+	boolean enumerate = false; // prints every model
+	String enumerateFile = null; // the models are printed here instead of the standard output
+	long limit = 0; // counting stops after this many models, if it is positive
+	String order = "none"; // see VariableOrder
+	boolean simplify = false; // see Simplifier
+	int eliminate = -1; // if it is not negative, it is the limit of VariableEliminator
+	boolean components = false; // see ComponentSolver
+	String compileFile = null; // the clauses are saved here in the format of CompiledCnf, and nothing is solved
+	boolean jmx = false; // the SolverMetrics are registered as an MBean
+	int progressSeconds = 0; // if it is positive, the progress is printed this often
+	String checkpointFile = null; // the position of the counter is saved here, see Checkpoint
+	int checkpointSeconds = 10;
+	boolean resume = false; // the solver goes on from the checkpoint
+	boolean batch = false; // many problems are solved, see BatchSolver
+	List<String> batchPaths = new ArrayList<String>(); // files, directories and glob patterns
+	long timeoutMillis = 0; // the time limit of a problem of the batch, if it is positive
+	String format = "csv"; // the format of the results of the batch: csv or json
+	int learn = 0; // if it is positive, the capacity of the store of LearningSolver
+	// returns null if the command line is wrong
+	public static Options Parse(String[] args) {
+		Options o = new Options();
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if (arg.startsWith("--")) arg = arg.substring(1); // --count is the same as -count
+			boolean hasValue = i + 1 < args.length;
+			if (arg.equals("-engine") && hasValue) o.engine = args[++i];
+			else if (arg.equals("-check") && hasValue) o.checkSteps = Integer.parseInt(args[++i]);
+			else if (arg.equals("-threads") && hasValue) o.threads = Integer.parseInt(args[++i]);
+			else if (arg.equals("-count")) o.count = true;
+			else if (arg.equals("-enumerate")) o.enumerate = true;
+			else if (arg.equals("-out") && hasValue) o.enumerateFile = args[++i];
+			else if (arg.equals("-limit") && hasValue) o.limit = Long.parseLong(args[++i]);
+			else if (arg.equals("-order") && hasValue) o.order = args[++i];
+			else if (arg.equals("-simplify")) o.simplify = true;
+			else if (arg.equals("-eliminate") && hasValue) o.eliminate = Integer.parseInt(args[++i]);
+			else if (arg.equals("-components")) o.components = true;
+			else if (arg.equals("-compile") && hasValue) o.compileFile = args[++i];
+			else if (arg.equals("-jmx")) o.jmx = true;
+			else if (arg.equals("-progress") && hasValue) o.progressSeconds = Integer.parseInt(args[++i]);
+			else if (arg.equals("-checkpoint") && hasValue) o.checkpointFile = args[++i];
+			else if (arg.equals("-checkpointseconds") && hasValue) o.checkpointSeconds = Integer.parseInt(args[++i]);
+			else if (arg.equals("-resume")) o.resume = true;
+			else if (arg.equals("-batch")) o.batch = true;
+			else if (arg.equals("-timeout") && hasValue) o.timeoutMillis = Long.parseLong(args[++i]);
+			else if (arg.equals("-format") && hasValue) o.format = args[++i];
+			else if (arg.equals("-learn") && hasValue) o.learn = Integer.parseInt(args[++i]);
+			else if (!arg.startsWith("-") && o.batch) o.batchPaths.add(arg);
+			else if (!arg.startsWith("-") && o.fileName == null) o.fileName = arg;
+			else return null;
 		}
+		if (o.threads < 1) o.threads = o.batch ? Runtime.getRuntime().availableProcessors() : 1;
+		// the learning is a variant of SolveFrom0
+		if (o.learn > 0 && (o.threads > 1 || o.components || o.count || o.enumerate || o.checkpointFile != null)) return null;
+		if (o.batch) return o.batchPaths.isEmpty() || !(o.format.equals("csv") || o.format.equals("json")) ? null : o;
+		if (o.resume && o.checkpointFile == null) return null;
+		// the checkpoint is the single counter of SolveFrom
+		if (o.checkpointFile != null && (o.threads > 1 || o.components || o.count || o.enumerate)) return null;
+		// the models are counted on one thread, only the components are counted at the same time
+		if ((o.count || o.enumerate) && o.threads > 1 && !o.components) return null;
+		// the compiled file has no place for the mapping of renumbered variables
+		if (o.compileFile != null && (o.eliminate >= 0 || o.simplify || !o.order.equals("none"))) return null;
+		return o.fileName == null ? null : o;
+	}
+	public static void PrintUsage() {
+		System.out.println("Start it with a DIMACS file, or a file made by -compile, as a parameter.");
+		System.out.println("The DIMACS file may not contain more than 62 variables.");
+		System.out.println("Options, they have to be given before the file name:");
+		System.out.println("  -engine name         selects the subsumer scan, default is scalar");
+		System.out.println("                       scalar: tests every clause");
+		System.out.println("                       simd: vectorized scalar, it needs CCCVectorKernel and");
+		System.out.println("                             --add-modules jdk.incubator.vector");
+		System.out.println("                       jump: clauses ordered by jump, it stops at the first subsumer");
+		System.out.println("                       trie: decision tree over the literals, it visits only the");
+		System.out.println("                             clauses which may subsume the counter");
+		System.out.println("                       watch: incremental, it examines only the clauses which");
+		System.out.println("                              watch a changed bit of the counter");
+		System.out.println("                       mru: scalar, but the clauses which won lately are tested");
+		System.out.println("                            first, a best one among them skips the full scan");
+		System.out.println("  -check n             compares the engine with the scalar one on the first n steps");
+		System.out.println("  -threads n           solves on n threads, the counter is split into ranges");
+		System.out.println("  -count               counts the models instead of looking for one, -threads only with");
+		System.out.println("                       -components");
+		System.out.println("  -enumerate           prints every model, it also counts them");
+		System.out.println("  -out file            -enumerate prints the models, -batch the results into this file");
+		System.out.println("  -limit n             -count and -enumerate stop after n models");
+		System.out.println("  -order name          reorders the variables before solving, default is none");
+		System.out.println("                       occurrence: the frequent variables get the high bits");
+		System.out.println("                       graph: the variables of a clause get bits near each other");
+		System.out.println("                       sample: the best of the above after a short run");
+		System.out.println("  -simplify            removes redundant clauses and fixed variables before solving");
+		System.out.println("  -eliminate n         eliminates the variables whose resolvents add at most n clauses,");
+		System.out.println("                       the file may have more than 62 variables, if enough are eliminated");
+		System.out.println("  -components          solves the independent parts of the problem separately,");
+		System.out.println("                       on -threads threads, -count multiplies their numbers of models");
+		System.out.println("  -compile file        saves the clauses into a binary file, which is loaded without parsing,");
+		System.out.println("                       it may not be used with -eliminate, -simplify and -order");
+		System.out.println("  -jmx                 the progress of the solver is an MBean, cccsat:type=SolverMetrics");
+		System.out.println("  -progress n          prints the progress of the solver in every n seconds");
+		System.out.println("  -checkpoint file     saves the position of the counter into the file, so a killed run");
+		System.out.println("                       can go on from there, only on one thread, without -components");
+		System.out.println("                       and -count");
+		System.out.println("  -checkpointseconds n the checkpoint is saved in every n seconds, default 10");
+		System.out.println("  -resume              goes on from the checkpoint, if there is one");
+		System.out.println("  -learn n             learns resolvents which make bigger jumps, at most n of them are");
+		System.out.println("                       kept, see LearningSolver, only on one thread, without -components,");
+		System.out.println("                       -count and -checkpoint");
+		System.out.println("  -batch               solves every file given after the options, a directory means its");
+		System.out.println("                       .cnf and .cnf.gz files, a name with * or ? is a glob pattern,");
+		System.out.println("                       -threads problems at the same time, by default as many as the");
+		System.out.println("                       processors, -engine is used");
+		System.out.println("  -timeout ms          the time limit of a problem of -batch");
+		System.out.println("  -format name         the format of the results of -batch: csv or json (a line per problem)");
+		System.out.println("                       they are printed as the problems finish, into -out if it is given");
 	}
 }
 /**
@@ -60,61 +333,1865 @@ public class CCC_v1Dot1 {
  */
 class SATCounter {
 	// This function implements the optimized CCC algorithm.
-	public static Clause SolveFrom0(ClauseSet s) {
+	// This function counts the models, it does not stop at the first one.
+	// Every model is given to the sink, if it is not null, and the counting stops after
+	// limit models, if limit is positive. The models are not kept in the memory.
+	// A value of the counter which has no subsumer is a model, and so is its block, see ModelBlock.
+	public static BigInteger Count(ClauseSet s, Consumer<Clause> sink, long limit) {
+		int numOfBits = global.getNumOfBits();
+		BigInteger count = BigInteger.ZERO;
+		long smallCount = 0; // it is added to count before it could overflow
 		ClearClause counter = new ClearClause();
-		List<Clause> subsumers = s.SubsumersOfClearClause(counter);
-		while (!subsumers.isEmpty()) {
-			byte maxNumberOfX = 0;
-			for (Clause subsumer : subsumers) { // selects the best subsumer
-				byte currentNumberOfX = subsumer.NumberOfXFromRight();
-				if (currentNumberOfX > maxNumberOfX) maxNumberOfX = currentNumberOfX;
+		while (!counter.testBit(numOfBits)) {
+			int maxNumberOfX = s.BestJumpOfClearClause(counter);
+			if (maxNumberOfX >= 0) {
+				counter.add(1L << maxNumberOfX);
+				continue;
 			}
+			long models = 1L << s.Packed().ModelBlock(counter.bits, numOfBits);
+			if (limit > 0) {
+				BigInteger left = BigInteger.valueOf(limit).subtract(count).subtract(BigInteger.valueOf(smallCount));
+				if (left.compareTo(BigInteger.valueOf(models)) <= 0) models = left.longValue();
+			}
+			if (sink != null) {
+				for (long i = 0; i < models; i++) sink.accept(Clause.ToClause(counter.bits + i).Negate());
+			}
+			if (smallCount > Long.MAX_VALUE - models) {
+				count = count.add(BigInteger.valueOf(smallCount));
+				smallCount = 0;
+			}
+			smallCount += models;
+			if (limit > 0 && count.add(BigInteger.valueOf(smallCount)).compareTo(BigInteger.valueOf(limit)) >= 0) break;
+			counter.add(models);
+		}
+		return count.add(BigInteger.valueOf(smallCount));
+	}
+	// This function runs the CCC algorithm on many threads, see ParallelSolver.
+	public static Clause SolveParallel(ClauseSet s, int threads) {
+		return SolveParallel(s, threads, null);
+	}
+	public static Clause SolveParallel(ClauseSet s, int threads, SolverMetrics metrics) {
+		return SolveParallel(s, threads, new EngineGroup(s::NewEngine), metrics);
+	}
+	// engines gets the engines of the threads, see EngineGroup
+	public static Clause SolveParallel(ClauseSet s, int threads, EngineGroup engines, SolverMetrics metrics) {
+		ParallelSolver solver = new ParallelSolver(s, engines, metrics);
+		Clause solution = solver.Solve(threads);
+		System.out.println("Number of ranges: " + solver.NumberOfRanges() + " on " + threads + " threads");
+		return solution;
+	}
+	public static Clause SolveFrom0(ClauseSet s) {
+		return SolveFrom(s, 0, null, null);
+	}
+	public static Clause SolveFrom0(ClauseSet s, SolverMetrics metrics) {
+		return SolveFrom(s, 0, metrics, null);
+	}
+	// the counter starts at from, every value below it has to be covered already
+	// the progress is given to metrics once in SolverMetrics.PUBLISH_STEPS steps, if it is not null,
+	// and the position of the counter is saved into checkpoint then, if it is due
+	public static Clause SolveFrom(ClauseSet s, long from, SolverMetrics metrics, Checkpoint checkpoint) {
+		int numOfBits = global.getNumOfBits();
+		if (from >>> numOfBits != 0) return null; // the checkpoint of a finished run
+		ClearClause counter = Clause.ToClause(from);
+		long[] jumps = new long[64]; // the steps of each jump since the last publishing
+		long published = from;
+		if (metrics != null) metrics.Resume(from);
+		int steps = 0;
+		int maxNumberOfX = s.BestJumpOfClearClause(counter); // jump of the best subsumer
+		while (maxNumberOfX >= 0) {
 			counter.add(1L << maxNumberOfX);
-			if (counter.testBit(global.getNumOfBits())) return null; // there is no solution
-			subsumers = s.SubsumersOfClearClause(counter);
+			jumps[maxNumberOfX]++;
+			if (++steps == SolverMetrics.PUBLISH_STEPS || counter.testBit(numOfBits)) {
+				if (metrics != null) metrics.Add(steps, counter.bits - published, jumps);
+				if (checkpoint != null && (checkpoint.Due() || counter.testBit(numOfBits))) {
+					checkpoint.SaveCounter(counter.bits);
+				}
+				published = counter.bits;
+				steps = 0;
+				if (counter.testBit(numOfBits)) return null; // there is no solution
+			}
+			maxNumberOfX = s.BestJumpOfClearClause(counter);
 		}
+		if (metrics != null) metrics.Add(steps, counter.bits - published, jumps);
+		if (checkpoint != null) checkpoint.SaveCounter(counter.bits); // a resumed run finds the solution at once
 		return counter.Negate(); // solution is found, we return it
 	}
+	// Runs the scalar engine for at most maxSteps steps, then it asks the selected engine
+	// for the same counters, and reports the differences and the speed of both engines.
+	public static void CrossCheck(ClauseSet s, int maxSteps) {
+		SubsumerEngine scalar = s.Packed();
+		SubsumerEngine engine = s.Engine();
+		long[] counters = new long[maxSteps];
+		int[] jumps = new int[maxSteps];
+		int steps = 0;
+		long counter = 0;
+		while (steps < maxSteps) {
+			counters[steps] = counter;
+			jumps[steps] = scalar.BestJump(counter);
+			if (jumps[steps] < 0) { steps++; break; }
+			counter += 1L << jumps[steps];
+			steps++;
+			if ((counter & (1L << global.getNumOfBits())) != 0) break;
+		}
+		int differences = 0;
+		for (int i = 0; i < steps; i++) {
+			if (engine.BestJump(counters[i]) != jumps[i]) differences++;
+		}
+		long scalarTime = TimeEngine(scalar, counters, steps);
+		long engineTime = TimeEngine(engine, counters, steps);
+		double tests = (double) steps * s.Packed().size;
+		System.out.println("Cross-check of the " + s.EngineName() + " engine on " + steps + " steps: "
+				+ (differences == 0 ? "OK" : differences + " different jumps!"));
+		System.out.printf("scalar: %.3g clauses tested per second%n", tests / scalarTime * 1e9);
+		System.out.printf("%s: %.3g clauses tested per second%n", s.EngineName(), tests / engineTime * 1e9);
+	}
+	// returns the nanoseconds taken by the engine on the counters, after some warm-up rounds
+	private static long TimeEngine(SubsumerEngine engine, long[] counters, int steps) {
+		long sum = 0, time = 0;
+		for (int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < steps; i++) sum += engine.BestJump(counters[i]);
+			time = System.nanoTime() - start;
+		}
+		if (sum == 42) System.out.print(""); // keeps the loop alive
+		return Math.max(time, 1);
+	}
+}
+/**
+ * Solves with many threads, each thread runs the CCC algorithm on a range of the counter.
+ * It starts with one range, [0, 2^numOfBits), a busy range gives away the upper half of its
+ * remainder when the other threads might be idle (fork-join work stealing).
+ * The first solution stops every range, the problem is unsatisfiable if every range is finished.
+ */
+class ParallelSolver {
+	private static final long MIN_SPLIT = 1L << 16; // smaller remainders are not split
+	private static final int CHECK_STEPS = 1024; // a range looks around once in this many steps
+	private final ClauseSet s;
+	private final EngineGroup engines; // the engine of each thread
+	private final AtomicReference<Clause> solution = new AtomicReference<Clause>();
+	private final AtomicLong ranges = new AtomicLong();
+	private volatile boolean stopped = false;
+	private final SolverMetrics metrics; // it may be null
+	private final int numOfBits; // the width of the thread which made it, the ranges run with it
+	public ParallelSolver(ClauseSet s, SolverMetrics metrics) {
+		this(s, new EngineGroup(s::NewEngine), metrics);
+	}
+	// engines has to make the engines of s, metrics may read it while the ranges run
+	public ParallelSolver(ClauseSet s, EngineGroup engines, SolverMetrics metrics) {
+		this.s = s;
+		this.metrics = metrics;
+		numOfBits = global.getNumOfBits();
+		s.Engine(); // the packed clauses are built before the threads start
+		this.engines = engines;
+	}
+	// returns a solution, or null if there is none
+	public Clause Solve(int threads) {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			pool.invoke(new RangeTask(0, 1L << numOfBits));
+		} finally {
+			pool.shutdown();
+		}
+		return solution.get();
+	}
+	public long NumberOfRanges() { return ranges.get(); }
+	private class RangeTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final long from;
+		private long to;
+		RangeTask(long from, long to) {
+			this.from = from;
+			this.to = to;
+			ranges.incrementAndGet();
+		}
+		@Override
+		protected void compute() {
+			global.setNumberOfBits(numOfBits);
+			SubsumerEngine engine = engines.Local();
+			List<RangeTask> given = new ArrayList<RangeTask>();
+			ClearClause counter = Clause.ToClause(from);
+			long[] jumps = new long[64]; // the steps of each jump since the last publishing
+			long published = from;
+			int steps = 0;
+			while (counter.bits < to) {
+				if (++steps == CHECK_STEPS) {
+					if (metrics != null) metrics.Add(steps, counter.bits - published, jumps);
+					published = counter.bits;
+					steps = 0;
+					if (stopped) break;
+					long remainder = to - counter.bits;
+					if (remainder >= MIN_SPLIT && getSurplusQueuedTaskCount() <= 0) {
+						long half = remainder >>> 1;
+						long middle = (counter.bits + half) & -Long.highestOneBit(half); // aligned to a big block
+						RangeTask upper = new RangeTask(middle, to);
+						to = middle;
+						upper.fork();
+						given.add(upper);
+					}
+				}
+				int maxNumberOfX = engine.BestJump(counter.bits);
+				if (maxNumberOfX < 0) { // solution is found
+					solution.compareAndSet(null, counter.Negate());
+					stopped = true;
+					break;
+				}
+				counter.skipBlock(maxNumberOfX);
+				jumps[maxNumberOfX]++;
+			}
+			if (metrics != null) metrics.Add(steps, Math.min(counter.bits, to) - published, jumps);
+			for (RangeTask t : given) t.join();
+		}
+	}
+}
+/**
+ * Incremental solving: a sequence of queries on a growing clause set, like adding a blocking
+ * clause and fixing a few variables, then asking again.
+ * An added clause covers more values, but it never uncovers one, so every value below the last
+ * position of the counter stays covered, and the next Solve goes on from there, not from 0.
+ * The counter jumps by skipBlock, not by add, because the clauses covering a value may have been
+ * added after the counter passed the start of their block.
+ * The assumptions are literals which are true only in one Solve. They pin bits of the counter:
+ * a value which disagrees with an assumption is skipped to the end of the block of that bit,
+ * like a unit clause would do it, but those values are not covered by the clauses, so the
+ * position moves only while the clauses alone cover the values.
+ * The literals are in the variables of the clause set, so it may not be reordered or simplified.
+ */
+class IncrementalSolver {
+	private final ClauseSet s;
+	private long position = 0; // every value below it is covered by the clauses
+	private long steps = 0;
+	private int solves = 0;
+	public IncrementalSolver(ClauseSet s) {
+		if (!s.InOriginalVariables()) {
+			throw new SolverException("The variables of the clause set were renumbered, it can not be solved incrementally.");
+		}
+		this.s = s;
+	}
+	// adds a clause of DIMACS literals, it may not have new variables
+	public void AddClause(int... literals) {
+		for (int literal : literals) Check(literal);
+		s.AddLiterals(literals);
+	}
+	// returns a solution in which every assumption is true, or null if there is none
+	// the solution is in the variables of the clause set, see ClauseSet.ToDimacs
+	public Clause Solve(int... assumptions) {
+		solves++;
+		long pinMask = 0, pinBits = 0; // the unit clauses of the assumptions
+		for (int literal : assumptions) {
+			Check(literal);
+			Clause unit = new Clause();
+			unit.SetLiteralZeroBased(literal);
+			if ((pinMask & unit.mask) != 0 && (pinBits & unit.mask) != unit.bits) return null; // x and -x
+			pinMask |= unit.mask;
+			pinBits |= unit.bits;
+		}
+		SubsumerEngine engine = s.Engine();
+		long all = 1L << global.getNumOfBits();
+		ClearClause counter = Clause.ToClause(position);
+		boolean covered = true; // every value below the counter is covered by the clauses alone
+		while (counter.bits < all) {
+			steps++;
+			int maxNumberOfX = engine.BestJump(counter.bits);
+			long pinned = ~(counter.bits ^ pinBits) & pinMask; // the assumptions which are false
+			int pinnedJump = pinned == 0 ? -1 : 63 - Long.numberOfLeadingZeros(pinned);
+			if (maxNumberOfX < 0 && pinnedJump < 0) { // solution is found
+				if (covered) position = counter.bits;
+				return counter.Negate();
+			}
+			if (pinnedJump > maxNumberOfX) covered = false;
+			counter.skipBlock(Math.max(maxNumberOfX, pinnedJump));
+			if (covered) position = counter.bits;
+		}
+		return null;
+	}
+	// the values below the position are covered, so they are not searched again
+	public long Position() { return position; }
+	// the search starts again from 0, it is needed only if a clause was removed from the clause set
+	public void Reset() { position = 0; }
+	public String Statistics() {
+		return String.format("Incremental: %d solves, %d steps, position %.4f%% of 2^%d",
+				solves, steps, 100.0 * Math.scalb((double) position, -global.getNumOfBits()), global.getNumOfBits());
+	}
+	private static void Check(int literal) {
+		if (literal == 0 || Math.abs(literal) > global.getNumOfBits()) {
+			throw new SolverException("The literal " + literal + " is not a variable of the clause set.");
+		}
+	}
+}
+/**
+ * The solver as a library, for many problems in one JVM. An instance owns its clauses and their
+ * width, so instances can be built and solved at the same time on the threads of a pool.
+ * The width is given to the thread which runs Solve, see global, one instance solves on one
+ * thread at a time. Solve stops at the timeout, or when Cancel is called from another thread,
+ * then the status of the result is UNKNOWN. The errors of the input are thrown as SolverException.
+ *   SolverResult r = CCCSolver.FromFile("a.cnf").Solve(1000);
+ *   if (r.status == SolverResult.Status.SATISFIABLE) System.out.println(Arrays.toString(r.model));
+ */
+class CCCSolver {
+	private static final int CHECK_TESTS = 1 << 16; // the timeout and Cancel are checked once in about this many clause tests
+	private final ClauseSet s;
+	private final int numOfBits;
+	private volatile boolean cancelled = false;
+	private CCCSolver(ClauseSet s) {
+		this.s = s;
+		numOfBits = global.getNumOfBits();
+	}
+	// a DIMACS file, it may be gzipped, or a file made by -compile
+	public static CCCSolver FromFile(String fileName) {
+		if (CompiledCnf.IsCompiled(fileName)) return new CCCSolver(new ClauseSet(new CompiledCnf(fileName)));
+		return new CCCSolver(new ClauseSet(fileName));
+	}
+	// a DIMACS text, the stream is read to its end and closed, name is used in the error messages
+	public static CCCSolver FromStream(InputStream in, String name) {
+		return new CCCSolver(new ClauseSet(new DimacsParser(in, name)));
+	}
+	// clauses of DIMACS literals, numOfVariables may not be bigger than 62
+	public static CCCSolver FromLiterals(int numOfVariables, List<int[]> clauses) {
+		if (numOfVariables > 62) throw new SolverException("The CNF may not contain more than 62 variables.");
+		for (int[] c : clauses) {
+			for (int literal : c) {
+				if (literal == 0 || Math.abs(literal) > numOfVariables) {
+					throw new SolverException("the literal " + literal + " is not a variable of the CNF");
+				}
+			}
+		}
+		return new CCCSolver(new ClauseSet(numOfVariables, clauses));
+	}
+	// selects the engine, see ClauseSet.SetEngine
+	public CCCSolver Engine(String name) {
+		s.SetEngine(name);
+		return this;
+	}
+	public int NumberOfVariables() { return numOfBits; }
+	// the warning of the parser, if the number of clauses is not the one of the p line, or null
+	public String Warning() { return s.warning; }
+	// stops a running Solve, and the later ones at once
+	public void Cancel() { cancelled = true; }
+	// returns the result, the solve stops after timeoutMillis, if it is positive
+	public synchronized SolverResult Solve(long timeoutMillis) {
+		long startTime = System.nanoTime();
+		long deadline = timeoutMillis > 0 ? startTime + timeoutMillis * 1_000_000L : Long.MAX_VALUE;
+		int previous = global.getNumOfBits();
+		global.setNumberOfBits(numOfBits);
+		try {
+			SubsumerEngine engine = s.Engine();
+			int checkSteps = Math.max(1, Math.min(1024, CHECK_TESTS / Math.max(1, s.Packed().size)));
+			ClearClause counter = new ClearClause();
+			long steps = 0;
+			int maxNumberOfX = engine.BestJump(counter.bits);
+			while (maxNumberOfX >= 0) {
+				counter.add(1L << maxNumberOfX);
+				steps++;
+				if (counter.testBit(numOfBits)) {
+					return new SolverResult(SolverResult.Status.UNSATISFIABLE, null, steps, System.nanoTime() - startTime, null);
+				}
+				if (steps % checkSteps == 0) {
+					if (cancelled) return new SolverResult(SolverResult.Status.UNKNOWN, null, steps, System.nanoTime() - startTime, "cancelled");
+					if (System.nanoTime() - deadline > 0) {
+						return new SolverResult(SolverResult.Status.UNKNOWN, null, steps, System.nanoTime() - startTime, "timeout");
+					}
+				}
+				maxNumberOfX = engine.BestJump(counter.bits);
+			}
+			Clause solution = counter.Negate(); // the variables are not moved, so it needs no ToOriginal
+			int[] model = new int[numOfBits];
+			for (int v = 1; v <= numOfBits; v++) model[v - 1] = solution.HasLiteral(v) ? v : -v;
+			return new SolverResult(SolverResult.Status.SATISFIABLE, model, steps, System.nanoTime() - startTime, null);
+		} finally {
+			global.setNumberOfBits(previous);
+		}
+	}
+}
+/**
+ * The result of CCCSolver.Solve.
+ * model[v - 1] is v or -v, the value of the variable v, if the status is SATISFIABLE, otherwise
+ * it is null. reason tells why the status is UNKNOWN: timeout or cancelled.
+ */
+class SolverResult {
+	enum Status { SATISFIABLE, UNSATISFIABLE, UNKNOWN }
+	final Status status;
+	final int[] model;
+	final long steps;
+	final long nanos; // the time of the solve
+	final String reason;
+	SolverResult(Status status, int[] model, long steps, long nanos, String reason) {
+		this.status = status;
+		this.model = model;
+		this.steps = steps;
+		this.nanos = nanos;
+		this.reason = reason;
+	}
+	@Override
+	public String toString() {
+		return status + (reason != null ? " (" + reason + ")" : "") + ", " + steps + " steps, "
+				+ nanos / 1_000_000 + " ms";
+	}
+}
+/**
+ * Solves many problems in one JVM, -threads of them at the same time, with CCCSolver.
+ * The results are printed as the problems finish, one record per problem:
+ *   csv:  file,status,seconds,steps,model,warning
+ *   json: {"file":..., "status":..., "seconds":..., "steps":..., "model":[...], "warning":...}
+ * The status is SAT, UNSAT, TIMEOUT or ERROR, the model is given only for SAT, the message of
+ * the error is given in the place of the model. The seconds contain the parsing too.
+ * The warning of the parser is in the record, in json only if there is one. Without -out the
+ * records go to System.out, and the other lines, the header and the summary, to System.err,
+ * so the output can be read line by line as CSV or JSON Lines.
+ */
+class BatchSolver {
+	private final Options o;
+	private int sat = 0, unsat = 0, timeouts = 0, errors = 0;
+	public BatchSolver(Options o) {
+		this.o = o;
+	}
+	public void Run() {
+		long startTime = System.nanoTime();
+		List<String> files = new ArrayList<String>();
+		for (String path : o.batchPaths) files.addAll(Expand(path));
+		System.err.println("Batch: " + files.size() + " files on " + o.threads + " threads");
+		ExecutorService pool = Executors.newFixedThreadPool(o.threads);
+		CompletionService<String> done = new ExecutorCompletionService<String>(pool);
+		PrintStream out = System.out;
+		try {
+			if (o.enumerateFile != null) out = new PrintStream(new BufferedOutputStream(new FileOutputStream(o.enumerateFile)));
+			if (o.format.equals("csv")) out.println("file,status,seconds,steps,model,warning");
+			for (String file : files) done.submit(() -> Solve(file));
+			for (int i = 0; i < files.size(); i++) {
+				out.println(done.take().get());
+				out.flush(); // a killed batch keeps the finished records
+			}
+		} catch (IOException | InterruptedException | ExecutionException e) {
+			throw new SolverException(e.toString(), e);
+		} finally {
+			pool.shutdownNow();
+			if (out != System.out) out.close();
+		}
+		System.err.println(String.format("Batch: %d SAT, %d UNSAT, %d TIMEOUT, %d ERROR in %.3f s",
+				sat, unsat, timeouts, errors, (System.nanoTime() - startTime) / 1e9));
+	}
+	// returns the record of the problem, it runs on a thread of the pool
+	private String Solve(String file) {
+		long startTime = System.nanoTime();
+		String status, detail, warning = null;
+		long steps = 0;
+		try {
+			CCCSolver solver = CCCSolver.FromFile(file);
+			warning = solver.Warning();
+			SolverResult r = solver.Engine(o.engine).Solve(o.timeoutMillis);
+			steps = r.steps;
+			status = r.status == SolverResult.Status.SATISFIABLE ? "SAT"
+					: r.status == SolverResult.Status.UNSATISFIABLE ? "UNSAT" : "TIMEOUT";
+			detail = r.model == null ? "" : Model(r.model);
+		} catch (SolverException e) {
+			status = "ERROR";
+			detail = e.getMessage().replace('\n', ' ');
+		}
+		Count(status);
+		double seconds = (System.nanoTime() - startTime) / 1e9;
+		if (o.format.equals("json")) {
+			String model = status.equals("SAT") ? "\"model\":[" + detail.replace(' ', ',') + "]" : status.equals("ERROR")
+					? "\"error\":" + Json(detail) : "\"model\":null";
+			return String.format("{\"file\":%s,\"status\":\"%s\",\"seconds\":%.3f,\"steps\":%d,%s%s}",
+					Json(file), status, seconds, steps, model, warning == null ? "" : ",\"warning\":" + Json(warning));
+		}
+		return String.format("%s,%s,%.3f,%d,%s,%s", Csv(file), status, seconds, steps, Csv(detail),
+				warning == null ? "" : Csv(warning));
+	}
+	private synchronized void Count(String status) {
+		if (status.equals("SAT")) sat++;
+		else if (status.equals("UNSAT")) unsat++;
+		else if (status.equals("TIMEOUT")) timeouts++;
+		else errors++;
+	}
+	private static String Model(int[] model) {
+		StringBuilder line = new StringBuilder();
+		for (int literal : model) {
+			if (line.length() > 0) line.append(' ');
+			line.append(literal);
+		}
+		return line.toString();
+	}
+	// the files of a directory or of a glob pattern in sorted order, or the file itself
+	static List<String> Expand(String path) {
+		List<String> files = new ArrayList<String>();
+		Path p = Paths.get(path);
+		String glob = null;
+		if (Files.isDirectory(p)) {
+			glob = "*.{cnf,cnf.gz}";
+		} else if (path.contains("*") || path.contains("?")) {
+			glob = p.getFileName().toString();
+			p = p.getParent() == null ? Paths.get(".") : p.getParent();
+		} else {
+			files.add(path);
+			return files;
+		}
+		PathMatcher matcher = p.getFileSystem().getPathMatcher("glob:" + glob);
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(p)) {
+			for (Path f : entries) {
+				if (matcher.matches(f.getFileName()) && Files.isRegularFile(f)) files.add(f.toString());
+			}
+		} catch (IOException e) { throw new SolverException(e.toString(), e); }
+		files.sort(null);
+		return files;
+	}
+	private static String Csv(String s) {
+		if (s.indexOf(',') < 0 && s.indexOf('"') < 0) return s;
+		return "\"" + s.replace("\"", "\"\"") + "\"";
+	}
+	private static String Json(String s) {
+		StringBuilder quoted = new StringBuilder("\"");
+		for (char c : s.toCharArray()) {
+			if (c == '"' || c == '\\') quoted.append('\\').append(c);
+			else if (c < ' ') quoted.append(String.format("\\u%04x", (int) c));
+			else quoted.append(c);
+		}
+		return quoted.append('"').toString();
+	}
+}
+/**
+ * Learned jump clauses on top of the walk of SolveFrom0.
+ * If the subsumers of two steps after each other, A and B, have the same jump k, and they clash
+ * exactly on bit k, which is the lowest literal of both, their resolvent (A | B without bit k) is
+ * implied, and it covers the blocks of both with a jump bigger than k. It is learned, so when the
+ * counter meets such a pair of blocks again, it jumps over both in one step. The next subsumer is
+ * resolved with the learned clause, not with B, so the learned clauses grow along the walk.
+ * The learned clauses appear after the counter passed the start of their blocks, so the counter
+ * jumps by skipBlock, see IncrementalSolver.
+ * At most capacity clauses are kept, if the store is full, the least recently used one is replaced.
+ * It uses the scalar scan, because it needs the subsumer itself, not only its jump.
+ */
+class LearningSolver {
+	private final PackedClauses p;
+	private final int capacity;
+	private final long[] mask, bits;
+	private final byte[] jump;
+	private final long[] lastUsed; // the step of the last use of the learned clause, or of its learning
+	private int size = 0;
+	private long steps = 0, jumpSum = 0, learned = 0, evicted = 0, learnedSteps = 0;
+	public LearningSolver(ClauseSet s, int capacity) {
+		p = s.Packed();
+		this.capacity = capacity;
+		mask = new long[capacity];
+		bits = new long[capacity];
+		jump = new byte[capacity];
+		lastUsed = new long[capacity];
+	}
+	// returns a solution, or null if there is none, metrics may be null
+	public Clause Solve(SolverMetrics metrics) {
+		int numOfBits = global.getNumOfBits();
+		long all = 1L << numOfBits;
+		long[] jumps = new long[64]; // the steps of each jump since the last publishing
+		long published = 0;
+		long counter = 0;
+		long lastMask = 0, lastBits = 0; // the subsumer of the last step
+		int lastJump = -1;
+		while (counter < all) {
+			int i = p.BestClause(counter);
+			int l = BestLearned(counter);
+			long m, b;
+			int j;
+			if (l >= 0 && (i < 0 || jump[l] > p.jump[i])) {
+				m = mask[l];
+				b = bits[l];
+				j = jump[l];
+				lastUsed[l] = steps;
+				learnedSteps++;
+			} else if (i >= 0) {
+				m = p.mask[i];
+				b = p.bits[i];
+				j = p.jump[i];
+			} else {
+				if (metrics != null) metrics.Add(steps % SolverMetrics.PUBLISH_STEPS, counter - published, jumps);
+				return Clause.ToClause(counter).Negate(); // solution is found
+			}
+			if (j == lastJump && j < numOfBits && ((b ^ lastBits) & m & lastMask) == 1L << j) {
+				m = (m | lastMask) & ~(1L << j);
+				b = (b | lastBits) & m;
+				Learn(m, b, Math.min(Long.numberOfTrailingZeros(m), numOfBits));
+			}
+			lastMask = m;
+			lastBits = b;
+			lastJump = j;
+			counter = (counter | ((1L << j) - 1)) + 1; // skipBlock
+			jumps[j]++;
+			jumpSum += j;
+			if (++steps % SolverMetrics.PUBLISH_STEPS == 0 && metrics != null) {
+				metrics.Add(SolverMetrics.PUBLISH_STEPS, Math.min(counter, all) - published, jumps);
+				published = Math.min(counter, all);
+			}
+		}
+		if (metrics != null) metrics.Add(steps % SolverMetrics.PUBLISH_STEPS, all - published, jumps);
+		return null;
+	}
+	// the index of the learned clause with the biggest jump which subsumes counter, or -1
+	private int BestLearned(long counter) {
+		int best = -1;
+		for (int i = 0; i < size; i++) {
+			if ((counter & mask[i]) == bits[i] && (best < 0 || jump[i] > jump[best])) best = i;
+		}
+		return best;
+	}
+	private void Learn(long m, long b, int j) {
+		for (int i = 0; i < size; i++) {
+			if (mask[i] == m && bits[i] == b) return; // it is known
+		}
+		int k = size;
+		if (size < capacity) size++;
+		else { // the least recently used one is replaced
+			k = 0;
+			for (int i = 1; i < size; i++) {
+				if (lastUsed[i] < lastUsed[k]) k = i;
+			}
+			evicted++;
+		}
+		mask[k] = m;
+		bits[k] = b;
+		jump[k] = (byte) j;
+		lastUsed[k] = steps;
+		learned++;
+	}
+	public long Steps() { return steps; }
+	public double AverageJump() { return steps == 0 ? 0 : (double) jumpSum / steps; }
+	public String Statistics() {
+		return String.format("Learning: %d steps, average jump %.2f, %d clauses learned, %d evicted, %d of %d kept,"
+				+ " %d steps by learned clauses", steps, AverageJump(), learned, evicted, size, capacity, learnedSteps);
+	}
+}
+/**
+ * A DIMACS file as lists of literals, it may have any number of variables.
+ */
+class DimacsFile {
+	int numOfVariables;
+	List<int[]> clauses = new ArrayList<int[]>();
+	String warning; // see DimacsParser.warning
+	public static DimacsFile Read(String fileName) {
+		DimacsFile f = new DimacsFile();
+		DimacsParser parser = new DimacsParser(fileName);
+		f.numOfVariables = parser.numOfVariables;
+		while (parser.NextClause()) f.clauses.add(Arrays.copyOf(parser.literals, parser.size));
+		parser.Close();
+		f.warning = parser.warning;
+		return f;
+	}
+}
+/**
+ * Reads a DIMACS file byte by byte, from a memory-mapped file, or from a gzip stream if the
+ * name ends with .gz. The numbers are parsed in place, a clause may span lines, and spaces,
+ * tabs and line ends are all separators. The p line has to come before the clauses, every
+ * literal is checked against it, and Close sets warning if the number of clauses is different,
+ * it is not printed here, the caller decides where it goes.
+ * NextClause reads the next clause into literals, it does not allocate anything.
+ */
+class DimacsParser {
+	private static final int WINDOW = 1 << 30; // the size of a mapping, a mapping may not exceed 2 GB
+	private final String fileName;
+	private FileChannel channel; // the file is mapped window by window
+	private long position; // the start of the next window
+	private MappedByteBuffer window;
+	private InputStream stream; // or it is read from a stream
+	private final byte[] chunk = new byte[1 << 16]; // the bytes are copied here from the window or the stream
+	private int next, end; // the unread bytes of chunk
+	private int line = 1;
+	int numOfVariables, numOfClauses;
+	private int clausesRead = 0;
+	String warning; // set by Close if the number of clauses is not the one of the p line, or null
+	int[] literals = new int[16]; // the clause read by NextClause
+	int size;
+	public DimacsParser(String fileName) {
+		this.fileName = fileName;
+		try {
+			if (fileName.endsWith(".gz")) {
+				stream = new GZIPInputStream(new FileInputStream(fileName), chunk.length);
+			} else {
+				channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+			}
+		} catch (IOException e) { throw new SolverException(e.toString(), e); }
+		ReadHeader();
+	}
+	// reads a DIMACS text from a stream, name is used in the error messages, Close closes the stream
+	public DimacsParser(InputStream in, String name) {
+		fileName = name;
+		stream = in;
+		ReadHeader();
+	}
+	// reads the comments and the p line
+	private void ReadHeader() {
+		int b = SkipSpaces();
+		while (b == 'c') {
+			SkipLine();
+			b = SkipSpaces();
+		}
+		if (b != 'p') Error("the p line is missing");
+		b = SkipSpaces();
+		if (b != 'c' || Next() != 'n' || Next() != 'f' || !IsSpace(Next())) Error("the p line has to be p cnf variables clauses");
+		numOfVariables = ReadNumber(SkipSpaces());
+		numOfClauses = ReadNumber(SkipSpaces());
+		if (numOfVariables < 0 || numOfClauses < 0) Error("the p line may not contain negative numbers");
+	}
+	// reads the next clause into literals and size, it returns false at the end of the file
+	public boolean NextClause() {
+		size = 0;
+		while (true) {
+			int b = SkipSpaces();
+			if (b < 0 || b == '%') { // % is the end of the SATLIB files
+				if (size == 0) return false;
+				clausesRead++; // the closing 0 of the last clause is missing
+				return true;
+			}
+			if (b == 'c') {
+				SkipLine();
+				continue;
+			}
+			if (b == 'p') Error("the p line is repeated");
+			int literal = ReadNumber(b);
+			if (literal == 0) {
+				clausesRead++;
+				return true;
+			}
+			if (literal > numOfVariables || -literal > numOfVariables) {
+				Error("the literal " + literal + " is not a variable of the p line");
+			}
+			if (size == literals.length) literals = Arrays.copyOf(literals, 2 * size);
+			literals[size++] = literal;
+		}
+	}
+	public void Close() {
+		try {
+			if (channel != null) channel.close();
+			if (stream != null) stream.close();
+		} catch (IOException e) { throw new SolverException(e.toString(), e); }
+		if (clausesRead != numOfClauses) {
+			warning = "Warning: the p line of " + fileName + " says " + numOfClauses
+					+ " clauses, but " + clausesRead + " clauses were read.";
+		}
+	}
+	// reads a number, b is its first byte
+	private int ReadNumber(int b) {
+		boolean negative = b == '-';
+		if (negative) b = Next();
+		if (b < '0' || b > '9') Error("a number is expected");
+		long n = 0;
+		while (b >= '0' && b <= '9') {
+			n = n * 10 + (b - '0');
+			if (n > Integer.MAX_VALUE) Error("the number is too big");
+			b = Next();
+		}
+		if (b >= 0 && !IsSpace(b)) Error("unexpected character: " + (char) b);
+		if (b == '\n') line++;
+		return (int) (negative ? -n : n);
+	}
+	// returns the first byte which is not a separator, or -1 at the end of the file
+	private int SkipSpaces() {
+		int b = Next();
+		while (IsSpace(b)) {
+			if (b == '\n') line++;
+			b = Next();
+		}
+		return b;
+	}
+	private void SkipLine() {
+		int b = Next();
+		while (b >= 0 && b != '\n') b = Next();
+		line++;
+	}
+	private static boolean IsSpace(int b) {
+		return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+	}
+	// returns the next byte, or -1 at the end of the file
+	private int Next() {
+		if (next == end && !Fill()) return -1;
+		return chunk[next++] & 0xFF;
+	}
+	private boolean Fill() {
+		try {
+			if (stream != null) {
+				end = Math.max(stream.read(chunk), 0);
+			} else {
+				if (window == null || !window.hasRemaining()) {
+					long length = Math.min(WINDOW, channel.size() - position);
+					if (length <= 0) return false;
+					window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+					position += length;
+				}
+				end = Math.min(chunk.length, window.remaining());
+				window.get(chunk, 0, end);
+			}
+		} catch (IOException e) { Error(e.toString()); }
+		next = 0;
+		return end > 0;
+	}
+	// the file is closed, because the caller does not get the parser back
+	private void Error(String message) {
+		try {
+			if (channel != null) channel.close();
+			if (stream != null) stream.close();
+		} catch (IOException e) { } // the first error is reported
+		throw new SolverException(fileName + ", line " + line + ": " + message);
+	}
+}
+/**
+ * The compiled binary form of a clause set, it is loaded without parsing, see -compile.
+ * Little-endian: the int MAGIC, VERSION, numOfBits, the number of clauses, and the number of
+ * skipped tautologies, then the mask words of the clauses, their bits words, which have the
+ * same layout as in Clause (variable k is bit numOfBits-k), and their jumps as bytes.
+ * The three arrays are mapped separately, the clauses are read from the mapped file.
+ */
+class CompiledCnf {
+	static final int MAGIC = 0x42434343; // "CCCB"
+	static final int VERSION = 1;
+	private static final int HEADER = 20; // bytes
+	final int numOfBits, size, tautologies;
+	private final LongBuffer mask, bits;
+	private final ByteBuffer jump;
+	public CompiledCnf(String fileName) {
+		LongBuffer m = null, b = null;
+		ByteBuffer j = null;
+		int n = 0, clauses = 0, skipped = 0;
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER).order(ByteOrder.LITTLE_ENDIAN);
+			if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+				throw new SolverException(fileName + " is not a compiled clause set of this version.");
+			}
+			n = header.getInt();
+			clauses = header.getInt();
+			skipped = header.getInt();
+			long words = 8L * clauses;
+			if (channel.size() != HEADER + 2 * words + clauses) {
+				throw new SolverException(fileName + " is truncated.");
+			}
+			m = channel.map(FileChannel.MapMode.READ_ONLY, HEADER, words).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+			b = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + words, words).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+			j = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + 2 * words, clauses);
+		} catch (IOException e) { throw new SolverException(e.toString(), e); }
+		numOfBits = n;
+		size = clauses;
+		tautologies = skipped;
+		mask = m;
+		bits = b;
+		jump = j;
+	}
+	// checks the first bytes of the file
+	public static boolean IsCompiled(String fileName) {
+		try (FileInputStream in = new FileInputStream(fileName)) {
+			byte[] magic = new byte[4];
+			return in.read(magic) == 4
+					&& ByteBuffer.wrap(magic).order(ByteOrder.LITTLE_ENDIAN).getInt() == MAGIC;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+	// the clauses as a read-only list, a Clause is made only when it is asked for
+	public List<Clause> Clauses() {
+		return new AbstractList<Clause>() {
+			@Override
+			public Clause get(int i) {
+				Clause c = new Clause();
+				c.mask = mask.get(i);
+				c.bits = bits.get(i);
+				return c;
+			}
+			@Override
+			public int size() { return size; }
+		};
+	}
+	// the arrays are copied in bulk from the mapped file
+	public PackedClauses Packed() {
+		long[] m = new long[size], b = new long[size];
+		byte[] j = new byte[size];
+		mask.duplicate().get(m);
+		bits.duplicate().get(b);
+		jump.duplicate().get(j);
+		return new PackedClauses(m, b, j);
+	}
+	// writes the clauses of s into the file, they have to be in the variables of the DIMACS file,
+	// because the way back of a renumbering is not stored
+	public static void Save(ClauseSet s, String fileName) {
+		if (!s.InOriginalVariables()) {
+			throw new SolverException("The variables were renumbered, the clauses can not be compiled.");
+		}
+		PackedClauses p = s.Packed();
+		try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(global.getNumOfBits()).putInt(p.size).putInt(s.tautologies);
+			for (long[] words : new long[][] { p.mask, p.bits }) {
+				for (long w : words) {
+					if (buffer.remaining() < 8) Write(channel, buffer);
+					buffer.putLong(w);
+				}
+			}
+			for (byte j : p.jump) {
+				if (!buffer.hasRemaining()) Write(channel, buffer);
+				buffer.put(j);
+			}
+			Write(channel, buffer);
+		} catch (IOException e) { throw new SolverException(e.toString(), e); }
+	}
+	private static void Write(FileChannel channel, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) channel.write(buffer);
+		buffer.clear();
+	}
+}
+/**
+ * The progress of a run of the solver, SolveFrom0, ParallelSolver, it is cheap enough for the
+ * hot loop: the solver counts its jumps in a local histogram, and it gives its steps, the values
+ * it covered and its histogram to Add only once in PUBLISH_STEPS steps.
+ * The counter walks from 0 to 2^numOfBits, so the covered values / 2^numOfBits is the part of the
+ * work done, and the ETA is the time left at the average speed so far. A satisfiable problem
+ * may stop much sooner.
+ * Register makes it a JMX MBean, cccsat:type=SolverMetrics, StartLog prints it periodically.
+ */
+class SolverMetrics implements DynamicMBean {
+	static final int PUBLISH_STEPS = 1 << 12;
+	private static final String[][] ATTRIBUTES = { // name, type, description
+		{ "Counter", "long", "the values of the counter covered so far, the position of the counter if it is one" },
+		{ "NumOfBits", "int", "the counter goes from 0 to 2^NumOfBits" },
+		{ "PercentCovered", "double", "the percent of the values covered so far" },
+		{ "Steps", "long", "the steps of the counter so far" },
+		{ "StepsPerSecond", "double", "the average speed so far" },
+		{ "AverageJump", "double", "the average jump of a step, a jump of j skips 2^j values" },
+		{ "JumpHistogram", "[J", "the number of steps of each jump" },
+		{ "TestedPerStep", "double", "the clauses, or trie nodes, tested by the engine per step" },
+		{ "ElapsedSeconds", "double", "the time since the start" },
+		{ "EtaSeconds", "double", "the time left at the average speed so far, -1 if it is not known yet" },
+		{ "Finished", "boolean", "the solver stopped" } };
+	private final int numOfBits;
+	private final SubsumerEngine engine;
+	private final long startTime = System.nanoTime();
+	private long covered = 0, steps = 0, jumpSum = 0;
+	private long resumed = 0; // the values covered by an earlier run, see Checkpoint
+	private final long[] histogram = new long[64];
+	private boolean finished = false;
+	private ObjectName name;
+	private Timer timer;
+	public SolverMetrics(int numOfBits, SubsumerEngine engine) {
+		this.numOfBits = numOfBits;
+		this.engine = engine;
+	}
+	// the solver did steps steps, and covered covered values since its last call,
+	// the jumps of those steps are added to the histogram, and jumps is cleared
+	public synchronized void Add(long steps, long covered, long[] jumps) {
+		this.steps += steps;
+		this.covered += covered;
+		for (int j = 0; j < jumps.length; j++) {
+			histogram[j] += jumps[j];
+			jumpSum += j * jumps[j];
+			jumps[j] = 0;
+		}
+	}
+	// the solver goes on from a checkpoint, the values covered before do not count in the speed
+	public synchronized void Resume(long covered) {
+		this.covered += covered;
+		resumed += covered;
+	}
+	public void Register(String solver) {
+		try {
+			name = new ObjectName("cccsat:type=SolverMetrics,name=" + solver);
+			ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+		} catch (JMException e) {
+			System.out.println("The metrics could not be registered: " + e);
+			name = null;
+		}
+	}
+	public void StartLog(int seconds) {
+		timer = new Timer("progress", true);
+		timer.scheduleAtFixedRate(new TimerTask() {
+			@Override
+			public void run() { System.out.println(ProgressLine()); }
+		}, seconds * 1000L, seconds * 1000L);
+	}
+	// the solver stopped, the log stops, and the MBean is unregistered
+	public void Close() {
+		synchronized (this) {
+			finished = true;
+		}
+		if (timer != null) timer.cancel();
+		if (name != null) {
+			try {
+				ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+			} catch (JMException e) { System.out.println(e); }
+		}
+	}
+	public synchronized double PercentCovered() {
+		return 100.0 * Math.scalb((double) covered, -numOfBits);
+	}
+	private double Seconds() {
+		return (System.nanoTime() - startTime) / 1e9;
+	}
+	public synchronized double Eta() {
+		double done = Math.scalb((double) covered, -numOfBits);
+		double doneNow = Math.scalb((double) (covered - resumed), -numOfBits); // by this run
+		return doneNow <= 0 ? -1 : Seconds() * (1 - done) / doneNow;
+	}
+	public synchronized String ProgressLine() {
+		double seconds = Seconds();
+		double eta = Eta();
+		return String.format("Progress: %.4f%% of 2^%d, %d steps, %.3g steps per second, average jump %.2f, ETA %s",
+				PercentCovered(), numOfBits, steps, steps / Math.max(seconds, 1e-9),
+				steps == 0 ? 0.0 : (double) jumpSum / steps, eta < 0 ? "unknown" : Duration(eta));
+	}
+	private static String Duration(double seconds) {
+		long s = Math.round(seconds);
+		if (s < 60) return s + " s";
+		if (s < 3600) return s / 60 + " min " + s % 60 + " s";
+		return s / 3600 + " h " + s % 3600 / 60 + " min";
+	}
+	// the wall time of the run, and the CPU time of the process
+	public static String TimeLine(long wallMillis) {
+		Optional<java.time.Duration> cpu = ProcessHandle.current().info().totalCpuDuration();
+		return "Wall time is " + wallMillis / 1000.0f + " s"
+				+ (cpu.isPresent() ? ", CPU time is " + cpu.get().toMillis() / 1000.0f + " s" : "");
+	}
+	@Override
+	public synchronized Object getAttribute(String attribute) throws AttributeNotFoundException {
+		switch (attribute) {
+		case "Counter": return covered;
+		case "NumOfBits": return numOfBits;
+		case "PercentCovered": return PercentCovered();
+		case "Steps": return steps;
+		case "StepsPerSecond": return steps / Math.max(Seconds(), 1e-9);
+		case "AverageJump": return steps == 0 ? 0.0 : (double) jumpSum / steps;
+		case "JumpHistogram": return histogram.clone();
+		case "TestedPerStep": return engine.TestedPerStep();
+		case "ElapsedSeconds": return Seconds();
+		case "EtaSeconds": return Eta();
+		case "Finished": return finished;
+		default: throw new AttributeNotFoundException(attribute);
+		}
+	}
+	@Override
+	public AttributeList getAttributes(String[] attributes) {
+		AttributeList list = new AttributeList();
+		for (String a : attributes) {
+			try {
+				list.add(new Attribute(a, getAttribute(a)));
+			} catch (AttributeNotFoundException e) { } // the unknown ones are left out
+		}
+		return list;
+	}
+	@Override
+	public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+		throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+	}
+	@Override
+	public AttributeList setAttributes(AttributeList attributes) {
+		return new AttributeList(); // every attribute is read-only
+	}
+	@Override
+	public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+		throw new ReflectionException(new NoSuchMethodException(actionName));
+	}
+	@Override
+	public MBeanInfo getMBeanInfo() {
+		MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[ATTRIBUTES.length];
+		for (int i = 0; i < ATTRIBUTES.length; i++) {
+			attributes[i] = new MBeanAttributeInfo(ATTRIBUTES[i][0], ATTRIBUTES[i][1], ATTRIBUTES[i][2], true, false, false);
+		}
+		return new MBeanInfo(getClass().getName(), "The progress of the solver", attributes, null, null, null);
+	}
+}
+/**
+ * Crash-safe checkpoints of SolveFrom. The whole state of the solver is the position of the
+ * counter: every value below it is covered, so a new run can go on from there.
+ * The file is text:
+ *   c comment lines
+ *   fingerprint f    of the clauses, see Fingerprint
+ *   counter n        the position of the counter, 2^numOfBits if the run is finished
+ * It is written into file.tmp, synced to the disk, then moved over the file atomically, so the
+ * file is either the old or the new checkpoint, even if the process is killed meanwhile.
+ * Due is just a clock read, so the solver can ask it in its loop, and a checkpoint is saved at
+ * most once in the given seconds.
+ */
+class Checkpoint {
+	private final Path file, temporary;
+	private final String fingerprint;
+	private final long period; // in nanoseconds
+	private long last = System.nanoTime();
+	public Checkpoint(String fileName, ClauseSet s, int seconds) {
+		file = Paths.get(fileName);
+		temporary = Paths.get(fileName + ".tmp");
+		fingerprint = Fingerprint(s);
+		period = seconds * 1_000_000_000L;
+	}
+	public boolean Due() {
+		return System.nanoTime() - last >= period;
+	}
+	public void SaveCounter(long counter) {
+		Save(List.of("counter " + counter));
+	}
+	// the position of the counter in the checkpoint, or 0 if there is no checkpoint yet
+	// a SolverException tells if the checkpoint is not usable, see Load
+	public long LoadCounter() {
+		List<String> lines = Load();
+		if (lines == null) return 0;
+		for (String line : lines) {
+			if (line.startsWith("counter ")) {
+				long counter = Long.parseLong(line.substring(8).trim());
+				System.out.println("Resumed from " + file + " at counter " + counter);
+				return counter;
+			}
+		}
+		throw new SolverException(file + ": there is no counter in the checkpoint.");
+	}
+	// the lines of the state are written after the fingerprint, an error is reported, but the
+	// solver goes on, maybe the next checkpoint can be saved
+	public void Save(List<String> state) {
+		last = System.nanoTime();
+		try (FileOutputStream out = new FileOutputStream(temporary.toFile())) {
+			StringBuilder text = new StringBuilder("c checkpoint of CCC_v1Dot1\n");
+			text.append("fingerprint ").append(fingerprint).append('\n');
+			for (String line : state) text.append(line).append('\n');
+			out.write(text.toString().getBytes("US-ASCII"));
+			out.getFD().sync();
+		} catch (IOException e) {
+			System.out.println("The checkpoint could not be written: " + e);
+			return;
+		}
+		try {
+			Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) { System.out.println("The checkpoint could not be written: " + e); }
+	}
+	// the lines of the state, or null if there is no checkpoint yet
+	// a SolverException tells if it can not be read, or if it belongs to other clauses
+	public List<String> Load() {
+		List<String> lines;
+		try {
+			lines = Files.readAllLines(file);
+		} catch (NoSuchFileException e) {
+			System.out.println("There is no checkpoint in " + file + " yet, it starts from the beginning.");
+			return null;
+		} catch (IOException e) { throw new SolverException(e.toString(), e); }
+		List<String> state = new ArrayList<String>();
+		String found = null;
+		for (String line : lines) {
+			if (line.equals("c") || line.startsWith("c ")) continue;
+			if (line.startsWith("fingerprint ")) found = line.substring(12).trim();
+			else state.add(line);
+		}
+		if (!fingerprint.equals(found)) {
+			throw new SolverException(file + " is the checkpoint of other clauses, or of other options.");
+		}
+		return state;
+	}
+	// the number of bits, the number of clauses, and a 128 bit hash of the clauses, it does not
+	// depend on the order of the clauses, but it does on the order of the variables
+	static String Fingerprint(ClauseSet s) {
+		PackedClauses p = s.Packed();
+		long sum = 0, xor = 0;
+		for (int i = 0; i < p.size; i++) {
+			long h = Mix(p.mask[i] * 0x9E3779B97F4A7C15L + p.bits[i]);
+			sum += h;
+			xor ^= Mix(h ^ 0x632BE59BD9B4E019L);
+		}
+		return String.format("%d-%d-%016x%016x", global.getNumOfBits(), p.size, sum, xor);
+	}
+	// the finalizer of SplitMix64
+	private static long Mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
+/**
+ * Splits the clauses into connected components, two variables are connected if they are in
+ * the same clause (union-find over the bits of the clauses). The components have no common
+ * variables, so they are solved independently: a solution is the union of their solutions,
+ * and the number of models is the product of their numbers of models.
+ * A component of a variables gets the highest a bits of the counter, so no clause has a literal
+ * in the lower bits, and every jump skips them: the counter makes at most 2^a steps, as if the
+ * component had its own a bits wide counter. The variables which are in no clause are in no
+ * component, they are false in the solution, and they double the number of models.
+ */
+class ComponentSolver {
+	private static final int CHECK_STEPS = 1024; // a component looks around once in this many steps
+	private final ClauseSet s;
+	private final int numOfBits;
+	private final List<ClauseSet> components = new ArrayList<ClauseSet>();
+	private final List<int[]> backs = new ArrayList<int[]>(); // back[i] is the bit of the i.-th variable of the component
+	private final long free; // the variables which are in no clause
+	private volatile boolean stopped = false;
+	private final EngineGroup engines = new EngineGroup(null); // the engines of the solved components
+	public ComponentSolver(ClauseSet s) {
+		this.s = s;
+		numOfBits = global.getNumOfBits();
+		int[] parent = new int[numOfBits];
+		for (int i = 0; i < numOfBits; i++) parent[i] = i;
+		long used = 0;
+		for (Clause c : s.clauses) {
+			used |= c.mask;
+			if (c.mask == 0) continue;
+			int first = Long.numberOfTrailingZeros(c.mask);
+			for (long m = c.mask & (c.mask - 1); m != 0; m &= m - 1) {
+				parent[Find(parent, Long.numberOfTrailingZeros(m))] = Find(parent, first);
+			}
+		}
+		free = (numOfBits == 0 ? 0 : -1L >>> (64 - numOfBits)) & ~used;
+		// the clauses of the components, the empty clauses are a component without variables
+		List<List<Clause>> parts = new ArrayList<List<Clause>>();
+		List<Long> variables = new ArrayList<Long>();
+		int[] partOfRoot = new int[numOfBits];
+		Arrays.fill(partOfRoot, -1);
+		List<Clause> empty = new ArrayList<Clause>();
+		for (Clause c : s.clauses) {
+			if (c.mask == 0) { empty.add(c); continue; }
+			int root = Find(parent, Long.numberOfTrailingZeros(c.mask));
+			if (partOfRoot[root] < 0) {
+				partOfRoot[root] = parts.size();
+				parts.add(new ArrayList<Clause>());
+				variables.add(0L);
+			}
+			parts.get(partOfRoot[root]).add(c);
+			variables.set(partOfRoot[root], variables.get(partOfRoot[root]) | c.mask);
+		}
+		if (!empty.isEmpty()) {
+			parts.add(empty);
+			variables.add(0L);
+		}
+		// the small components first, an unsatisfiable one stops the others sooner
+		Integer[] order = new Integer[parts.size()];
+		for (int i = 0; i < order.length; i++) order[i] = i;
+		Arrays.sort(order, (a, b) -> Integer.compare(Long.bitCount(variables.get(a)), Long.bitCount(variables.get(b))));
+		for (int p : order) {
+			long m = variables.get(p);
+			int a = Long.bitCount(m);
+			int[] map = new int[numOfBits];
+			int[] back = new int[a];
+			for (int i = 0; i < numOfBits; i++) map[i] = i;
+			for (int i = 0; m != 0; i++, m &= m - 1) {
+				back[i] = Long.numberOfTrailingZeros(m);
+				map[back[i]] = numOfBits - a + i;
+			}
+			List<Clause> clauses = new ArrayList<Clause>();
+			for (Clause c : parts.get(p)) clauses.add(c.Permute(map));
+			ClauseSet component = new ClauseSet(clauses, numOfBits);
+			component.SetEngine(s.EngineName());
+			components.add(component);
+			backs.add(back);
+		}
+	}
+	private static int Find(int[] parent, int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+	public int NumberOfComponents() { return components.size(); }
+	// the engines of the components, for SolverMetrics, they are added as the components start
+	public EngineGroup Engines() { return engines; }
+	// a line of engine statistics for every component which has them, or null
+	public String EngineStatistics() {
+		StringBuilder lines = new StringBuilder();
+		for (int k = 0; k < components.size(); k++) {
+			String statistics = components.get(k).Engine().Statistics();
+			if (statistics == null) continue;
+			if (lines.length() > 0) lines.append('\n');
+			lines.append("Component ").append(k + 1).append(": ").append(statistics);
+		}
+		return lines.length() == 0 ? null : lines.toString();
+	}
+	public Clause Solve(int threads) {
+		return Solve(threads, null);
+	}
+	// returns a solution, or null if a component has none
+	// each component has 1 / (number of components) of the progress in metrics, it may be null
+	public Clause Solve(int threads, SolverMetrics metrics) {
+		List<Callable<Clause>> tasks = new ArrayList<Callable<Clause>>();
+		for (ClauseSet c : components) tasks.add(() -> SolveComponent(c, metrics));
+		List<Clause> solutions = RunAll(tasks, threads);
+		Clause solution = new Clause();
+		solution.mask = numOfBits == 0 ? 0 : -1L >>> (64 - numOfBits);
+		for (int k = 0; k < solutions.size(); k++) {
+			Clause c = solutions.get(k);
+			if (c == null) return null;
+			int[] back = backs.get(k);
+			for (int i = 0; i < back.length; i++) {
+				if ((c.bits & (1L << (numOfBits - back.length + i))) != 0) solution.bits |= 1L << back[i];
+			}
+		}
+		return solution;
+	}
+	// the same as SATCounter.SolveFrom0, but it stops if another component is unsatisfiable
+	private Clause SolveComponent(ClauseSet c, SolverMetrics metrics) {
+		SubsumerEngine engine = engines.Register(c.Engine());
+		ClearClause counter = new ClearClause();
+		long[] jumps = new long[64]; // the steps of each jump since the last publishing
+		long published = 0; // the share of the component in the progress, published so far
+		int steps = 0;
+		int maxNumberOfX = engine.BestJump(counter.bits);
+		while (maxNumberOfX >= 0) {
+			counter.add(1L << maxNumberOfX);
+			jumps[maxNumberOfX]++;
+			if (counter.testBit(numOfBits)) { // there is no solution
+				stopped = true;
+				break;
+			}
+			if (++steps == CHECK_STEPS) {
+				if (metrics != null) metrics.Add(steps, counter.bits / components.size() - published, jumps);
+				published = counter.bits / components.size();
+				steps = 0;
+				if (stopped) return null;
+			}
+			maxNumberOfX = engine.BestJump(counter.bits);
+		}
+		if (metrics != null) metrics.Add(steps, counter.bits / components.size() - published, jumps);
+		return maxNumberOfX < 0 ? counter.Negate() : null;
+	}
+	// returns the number of models, the counts of the components are divided by
+	// the 2^(numOfBits-a) values of their unused low bits
+	public BigInteger Count(int threads) {
+		List<Callable<BigInteger>> tasks = new ArrayList<Callable<BigInteger>>();
+		for (int k = 0; k < components.size(); k++) {
+			ClauseSet c = components.get(k);
+			int low = numOfBits - backs.get(k).length;
+			tasks.add(() -> SATCounter.Count(c, null, 0).shiftRight(low));
+		}
+		BigInteger count = BigInteger.ONE.shiftLeft(Long.bitCount(free));
+		for (BigInteger n : RunAll(tasks, threads)) count = count.multiply(n);
+		return count;
+	}
+	// runs the tasks on threads threads, and returns their results in the same order
+	// the tasks run with the width of the calling thread, see global
+	private static <T> List<T> RunAll(List<Callable<T>> tasks, int threads) {
+		int numOfBits = global.getNumOfBits();
+		List<Callable<T>> bound = new ArrayList<Callable<T>>();
+		for (Callable<T> task : tasks) {
+			bound.add(() -> {
+				global.setNumberOfBits(numOfBits);
+				return task.call();
+			});
+		}
+		List<T> results = new ArrayList<T>();
+		ForkJoinPool pool = new ForkJoinPool(Math.max(threads, 1));
+		try {
+			for (Future<T> f : pool.invokeAll(bound)) results.add(f.get());
+		} catch (InterruptedException | ExecutionException e) { throw new SolverException(e.toString(), e); }
+		finally {
+			pool.shutdown();
+		}
+		return results;
+	}
+	public String Statistics() {
+		int biggest = 0;
+		for (int[] back : backs) biggest = Math.max(biggest, back.length);
+		return "Components: " + components.size() + ", the biggest has " + biggest + " variables, "
+				+ Long.bitCount(free) + " variables are in no clause";
+	}
+}
+/**
+ * Bounded variable elimination, it works on the DIMACS literals before the ClauseSet is built,
+ * so the problem may have more than 62 variables before the elimination.
+ * The tautologies of the file are dropped, and the repeated literals are merged first.
+ * A variable x is eliminated, if the non-tautological resolvents of the clauses of x and -x
+ * are not more than those clauses plus limit, then those clauses are replaced by the resolvents.
+ * The cheapest variables are tried first, and it is repeated while it eliminates something.
+ * The eliminated variables and their clauses are kept on a stack, the solution of the rest
+ * is extended by them in the reverse order: x is true only if a clause of x needs it.
+ */
+class VariableEliminator {
+	private static final int MAX_PAIRS = 1 << 16; // variables with more resolvents are not tried
+	private final int limit;
+	private int numOfVariables, remaining, clausesBefore, clausesAfter;
+	private int tautologies = 0; // the clauses of the file which contain x and -x, they are dropped
+	private final List<Integer> stackVariables = new ArrayList<Integer>();
+	private final List<List<int[]>> stackClauses = new ArrayList<List<int[]>>();
+	private int[] oldOfNew; // the variable of the file of a remaining variable, oldOfNew[0] is unused
+	// the clauses and their literals
+	private final List<int[]> clauses = new ArrayList<int[]>();
+	private final List<Boolean> removed = new ArrayList<Boolean>();
+	private List<List<Integer>> occurrences; // the clauses of a literal, see Index
+	public VariableEliminator(int limit) {
+		this.limit = limit;
+	}
+	public ClauseSet Eliminate(DimacsFile f) {
+		numOfVariables = f.numOfVariables;
+		clausesBefore = f.clauses.size();
+		occurrences = new ArrayList<List<Integer>>();
+		for (int i = 0; i < 2 * (numOfVariables + 1); i++) occurrences.add(new ArrayList<Integer>());
+		for (int[] c : f.clauses) {
+			int[] clause = Normalize(c, c.length);
+			if (clause == null) tautologies++; // it is always true
+			else Add(clause);
+		}
+		boolean[] eliminated = new boolean[numOfVariables + 1];
+		boolean progress = true;
+		while (progress) {
+			progress = false;
+			Integer[] order = new Integer[numOfVariables];
+			long[] cost = new long[numOfVariables + 1];
+			for (int v = 1; v <= numOfVariables; v++) {
+				order[v - 1] = v;
+				cost[v] = (long) Alive(v).size() * Alive(-v).size();
+			}
+			Arrays.sort(order, (a, b) -> Long.compare(cost[a], cost[b]));
+			for (int v : order) {
+				if (eliminated[v] || cost[v] > MAX_PAIRS) continue;
+				if (TryEliminate(v)) {
+					eliminated[v] = true;
+					progress = true;
+				}
+			}
+		}
+		oldOfNew = new int[numOfVariables + 1];
+		int[] newOfOld = new int[numOfVariables + 1];
+		remaining = 0;
+		for (int v = 1; v <= numOfVariables; v++) {
+			if (!eliminated[v]) {
+				remaining++;
+				oldOfNew[remaining] = v;
+				newOfOld[v] = remaining;
+			}
+		}
+		if (remaining > 62) {
+			throw new SolverException("After the elimination there are still " + remaining + " variables.\n"
+					+ "The CNF may not contain more than 62 variables.");
+		}
+		List<int[]> rest = new ArrayList<int[]>();
+		for (int i = 0; i < clauses.size(); i++) {
+			if (removed.get(i)) continue;
+			int[] c = clauses.get(i).clone();
+			for (int k = 0; k < c.length; k++) c[k] = c[k] > 0 ? newOfOld[c[k]] : -newOfOld[-c[k]];
+			rest.add(c);
+		}
+		clausesAfter = rest.size();
+		ClauseSet s = new ClauseSet(remaining, rest);
+		s.warning = f.warning;
+		s.SetDimacsWriter(this::ToDimacs);
+		return s;
+	}
+	// eliminates v if its resolvents are few enough
+	private boolean TryEliminate(int v) {
+		List<Integer> positive = Alive(v), negative = Alive(-v);
+		int bound = positive.size() + negative.size() + limit;
+		List<int[]> resolvents = new ArrayList<int[]>();
+		for (int p : positive) {
+			for (int n : negative) {
+				int[] r = Resolve(clauses.get(p), clauses.get(n), v);
+				if (r == null) continue;
+				resolvents.add(r);
+				if (resolvents.size() > bound) return false;
+			}
+		}
+		List<int[]> old = new ArrayList<int[]>();
+		for (int i : positive) { old.add(clauses.get(i)); removed.set(i, true); }
+		for (int i : negative) { old.add(clauses.get(i)); removed.set(i, true); }
+		stackVariables.add(v);
+		stackClauses.add(old);
+		for (int[] r : resolvents) Add(r);
+		return true;
+	}
+	// the resolvent of p and n on v, or null if it is a tautology
+	private static int[] Resolve(int[] p, int[] n, int v) {
+		int[] r = new int[p.length + n.length];
+		int size = 0;
+		for (int l : p) if (l != v) r[size++] = l;
+		for (int l : n) if (l != -v) r[size++] = l;
+		return Normalize(r, size);
+	}
+	// the first size literals of c without the repeated ones, or null if c contains x and -x
+	private static int[] Normalize(int[] c, int size) {
+		int[] r = new int[size];
+		int k = 0;
+		for (int i = 0; i < size; i++) {
+			boolean known = false;
+			for (int j = 0; j < k; j++) {
+				if (r[j] == -c[i]) return null;
+				if (r[j] == c[i]) known = true;
+			}
+			if (!known) r[k++] = c[i];
+		}
+		return Arrays.copyOf(r, k);
+	}
+	private void Add(int[] c) {
+		int i = clauses.size();
+		clauses.add(c);
+		removed.add(false);
+		for (int l : c) occurrences.get(Index(l)).add(i);
+	}
+	// the clauses of the literal which were not removed, the removed ones are dropped from the list
+	private List<Integer> Alive(int literal) {
+		List<Integer> list = occurrences.get(Index(literal));
+		list.removeIf(i -> removed.get(i));
+		return new ArrayList<Integer>(list);
+	}
+	private static int Index(int literal) {
+		return 2 * Math.abs(literal) + (literal < 0 ? 1 : 0);
+	}
+	// extends the solution of the remaining variables to the variables of the file
+	public String ToDimacs(Clause solution) {
+		boolean[] value = new boolean[numOfVariables + 1];
+		for (int j = 1; j <= remaining; j++) value[oldOfNew[j]] = (solution.bits & (1L << (remaining - j))) != 0;
+		for (int k = stackVariables.size() - 1; k >= 0; k--) {
+			int v = stackVariables.get(k);
+			value[v] = false;
+			for (int[] c : stackClauses.get(k)) {
+				if (Contains(c, v) && !Satisfied(c, value, v)) value[v] = true; // only x can satisfy this clause
+			}
+		}
+		StringBuilder s = new StringBuilder();
+		for (int v = 1; v <= numOfVariables; v++) s.append(value[v] ? v : -v).append(' ');
+		s.append('0');
+		return s.toString();
+	}
+	private static boolean Contains(int[] c, int literal) {
+		for (int l : c) if (l == literal) return true;
+		return false;
+	}
+	// checks whether a literal of c is true, the literals of v do not count
+	private static boolean Satisfied(int[] c, boolean[] value, int v) {
+		for (int l : c) {
+			if (Math.abs(l) != v && value[Math.abs(l)] == (l > 0)) return true;
+		}
+		return false;
+	}
+	public String Statistics() {
+		return "Elimination: " + numOfVariables + " -> " + remaining + " variables, "
+				+ clausesBefore + " -> " + clausesAfter + " clauses"
+				+ (tautologies > 0 ? ", " + tautologies + " tautologies dropped" : "");
+	}
+}
+/**
+ * Simplifies the clauses before solving, every removed variable halves the counter,
+ * and every removed clause makes the steps cheaper.
+ * 1. Unit clauses fix their variables, the satisfied clauses and the false literals are removed.
+ * 2. Pure literals, the variables which occur only positive or only negative, are fixed too.
+ * 3. Duplicate clauses and clauses subsumed by other clauses are removed.
+ * 4. The remaining variables are packed into the lowest bits, in the same order.
+ * If the models are counted, the pure literals are not fixed, and the variables which are
+ * not in any clause are kept, so that the number of models stays the same.
+ * The fixed variables are put back into the solution by ClauseSet.ToOriginal.
+ */
+class Simplifier {
+	private final boolean keepModels;
+	private int units = 0, pures = 0, duplicates = 0, subsumed = 0;
+	private int bitsBefore, bitsAfter, clausesBefore, clausesAfter, tautologies;
+	private boolean unsatisfiable = false;
+	public Simplifier(boolean keepModels) {
+		this.keepModels = keepModels;
+	}
+	public void Simplify(ClauseSet s) {
+		int n = global.getNumOfBits();
+		long all = (1L << n) - 1;
+		bitsBefore = n;
+		clausesBefore = s.clauses.size();
+		tautologies = s.tautologies;
+		List<Clause> clauses = new ArrayList<Clause>(s.clauses);
+		long fixedMask = 0, fixedBits = 0; // the fixed variables and their values
+		boolean changed = true;
+		while (changed && !unsatisfiable) {
+			changed = false;
+			for (Clause c : clauses) {
+				if (c.mask == 0) unsatisfiable = true;
+				else if (Long.bitCount(c.mask) == 1 && (c.mask & fixedMask) == 0) {
+					fixedMask |= c.mask;
+					fixedBits |= c.bits;
+					units++;
+					changed = true;
+				}
+			}
+			if (!keepModels && !changed) {
+				long positive = 0, negative = 0;
+				for (Clause c : clauses) {
+					positive |= c.mask & c.bits;
+					negative |= c.mask & ~c.bits;
+				}
+				long pure = (positive ^ negative) & ~fixedMask;
+				if (pure != 0) {
+					fixedMask |= pure;
+					fixedBits |= pure & positive;
+					pures += Long.bitCount(pure);
+					changed = true;
+				}
+			}
+			if (changed) clauses = Assign(clauses, fixedMask, fixedBits);
+		}
+		if (unsatisfiable) {
+			clauses.clear();
+			clauses.add(new Clause()); // the empty clause
+		} else {
+			clauses = RemoveSubsumed(clauses);
+		}
+		// packing
+		long used = 0;
+		for (Clause c : clauses) used |= c.mask;
+		if (keepModels) used |= all & ~fixedMask;
+		if (unsatisfiable) used = 0;
+		int[] map = new int[n];
+		int[] back = new int[Long.bitCount(used)];
+		int k = 0;
+		for (int i = 0; i < n; i++) {
+			if ((used & (1L << i)) != 0) {
+				back[k] = i;
+				map[i] = k++;
+			}
+		}
+		for (int i = 0; i < clauses.size(); i++) clauses.set(i, clauses.get(i).Permute(map));
+		s.clauses = clauses;
+		global.setNumberOfBits(k);
+		bitsAfter = k;
+		clausesAfter = clauses.size();
+		long fixedMaskOfSolution = fixedMask, fixedBitsOfSolution = fixedBits;
+		s.AddToOriginal(solution -> {
+			Clause c = new Clause();
+			c.mask = all;
+			c.bits = fixedBitsOfSolution; // the removed variables, which are not fixed, are false
+			for (int i = 0; i < back.length; i++) {
+				if ((solution.bits & (1L << i)) != 0) c.bits |= 1L << back[i];
+			}
+			return c;
+		});
+		s.Changed();
+	}
+	// removes the clauses which are true, and the literals which are false
+	private static List<Clause> Assign(List<Clause> clauses, long fixedMask, long fixedBits) {
+		List<Clause> rest = new ArrayList<Clause>();
+		for (Clause c : clauses) {
+			if ((c.mask & fixedMask & ~(c.bits ^ fixedBits)) != 0) continue; // a literal is true
+			Clause d = new Clause();
+			d.mask = c.mask & ~fixedMask;
+			d.bits = c.bits & ~fixedMask;
+			rest.add(d);
+		}
+		return rest;
+	}
+	// removes the duplicate clauses and the clauses which are subsumed by another one
+	// the short clauses come first, a clause is compared only with the kept clauses
+	// of its rarest literal
+	private List<Clause> RemoveSubsumed(List<Clause> clauses) {
+		clauses.sort((a, b) -> {
+			int size = Integer.compare(Long.bitCount(a.mask), Long.bitCount(b.mask));
+			if (size != 0) return size;
+			if (a.mask != b.mask) return Long.compare(a.mask, b.mask);
+			return Long.compare(a.bits, b.bits);
+		});
+		int n = global.getNumOfBits();
+		int[] occurrences = new int[2 * n];
+		for (Clause c : clauses) {
+			for (long m = c.mask; m != 0; m &= m - 1) occurrences[Literal(c, Long.numberOfTrailingZeros(m))]++;
+		}
+		List<List<Clause>> kept = new ArrayList<List<Clause>>();
+		for (int i = 0; i < 2 * n; i++) kept.add(new ArrayList<Clause>());
+		List<Clause> rest = new ArrayList<Clause>();
+		Clause previous = null;
+		for (Clause c : clauses) {
+			if (previous != null && previous.mask == c.mask && previous.bits == c.bits) {
+				duplicates++;
+				continue;
+			}
+			previous = c;
+			if (IsSubsumed(c, kept)) {
+				subsumed++;
+				continue;
+			}
+			int rarest = -1;
+			for (long m = c.mask; m != 0; m &= m - 1) {
+				int l = Literal(c, Long.numberOfTrailingZeros(m));
+				if (rarest < 0 || occurrences[l] < occurrences[rarest]) rarest = l;
+			}
+			if (rarest >= 0) kept.get(rarest).add(c);
+			rest.add(c);
+		}
+		return rest;
+	}
+	// a kept clause which subsumes c has one of the literals of c as its rarest literal
+	private static boolean IsSubsumed(Clause c, List<List<Clause>> kept) {
+		for (long m = c.mask; m != 0; m &= m - 1) {
+			for (Clause d : kept.get(Literal(c, Long.numberOfTrailingZeros(m)))) {
+				if (d.Subsumes(c)) return true;
+			}
+		}
+		return false;
+	}
+	private static int Literal(Clause c, int bit) {
+		return 2 * bit + (int) ((c.bits >>> bit) & 1);
+	}
+	public String Statistics() {
+		return "Simplification: " + (unsatisfiable ? "the empty clause was found, " : "")
+				+ bitsBefore + " -> " + bitsAfter + " variables (" + units + " units, " + pures + " pure), "
+				+ clausesBefore + " -> " + clausesAfter + " clauses (" + tautologies + " tautologies, "
+				+ duplicates + " duplicates, " + subsumed + " subsumed)";
+	}
+}
+/**
+ * Orders of the variables, an order gives the new bit of every bit, see ClauseSet.Reorder.
+ * The jump of a clause is the number of bits below its lowest literal, so a good order
+ * puts the variables of many clauses to the high bits, and the rare variables to the low bits.
+ */
+class VariableOrder {
+	private static final int SAMPLE_STEPS = 2000;
+	// returns the order of the given name: none, occurrence, graph or sample
+	public static int[] ByName(ClauseSet s, String name) {
+		if (name.equals("occurrence")) return Occurrence(s);
+		if (name.equals("graph")) return Graph(s);
+		if (name.equals("sample")) return Sample(s);
+		if (!name.equals("none")) System.out.println("Unknown order: " + name + ", the order is not changed.");
+		return null;
+	}
+	// the more clauses contain a variable, the higher bit it gets
+	public static int[] Occurrence(ClauseSet s) {
+		int n = global.getNumOfBits();
+		int[] occurrences = Occurrences(s);
+		Integer[] bits = new Integer[n];
+		for (int i = 0; i < n; i++) bits[i] = i;
+		Arrays.sort(bits, (a, b) -> occurrences[a] != occurrences[b] ? occurrences[a] - occurrences[b] : a - b);
+		int[] map = new int[n];
+		for (int i = 0; i < n; i++) map[bits[i]] = i;
+		return map;
+	}
+	// the variables are placed from the highest bit down, the next one is the variable which
+	// shares the most clauses with the placed ones, so the clauses are finished as high as possible
+	public static int[] Graph(ClauseSet s) {
+		int n = global.getNumOfBits();
+		int[] occurrences = Occurrences(s);
+		int[] score = new int[n];
+		boolean[] placed = new boolean[n];
+		int[] map = new int[n];
+		for (int next = n - 1; next >= 0; next--) {
+			int best = -1;
+			for (int i = 0; i < n; i++) {
+				if (placed[i]) continue;
+				if (best < 0 || score[i] > score[best] ||
+					(score[i] == score[best] && occurrences[i] > occurrences[best])) best = i;
+			}
+			placed[best] = true;
+			map[best] = next;
+			for (Clause c : s.clauses) {
+				if ((c.mask & (1L << best)) == 0) continue;
+				long others = c.mask & ~(1L << best);
+				while (others != 0) {
+					int i = Long.numberOfTrailingZeros(others);
+					others &= others - 1;
+					if (i < n) score[i]++;
+				}
+			}
+		}
+		return map;
+	}
+	// tries the DIMACS order, the occurrence order and the graph order for some steps,
+	// and returns the one whose counter went the farthest
+	public static int[] Sample(ClauseSet s) {
+		int n = global.getNumOfBits();
+		int[] identity = new int[n];
+		for (int i = 0; i < n; i++) identity[i] = i;
+		int[][] orders = { identity, Occurrence(s), Graph(s) };
+		String[] names = { "none", "occurrence", "graph" };
+		int best = 0;
+		double bestProgress = -1;
+		for (int k = 0; k < orders.length; k++) {
+			double progress = Progress(s, orders[k]);
+			System.out.printf("Order %s: %.3g%% of the counter in %d steps%n", names[k], 100 * progress, SAMPLE_STEPS);
+			if (progress > bestProgress) {
+				bestProgress = progress;
+				best = k;
+			}
+		}
+		System.out.println("Order " + names[best] + " is used.");
+		return best == 0 ? null : orders[best];
+	}
+	// runs the CCC algorithm in the order for some steps, it returns the part of the counter done
+	private static double Progress(ClauseSet s, int[] map) {
+		List<Clause> permuted = new ArrayList<Clause>();
+		for (Clause c : s.clauses) permuted.add(c.Permute(map));
+		PackedClauses p = new PackedClauses(permuted);
+		long all = 1L << global.getNumOfBits();
+		long counter = 0;
+		for (int step = 0; step < SAMPLE_STEPS && counter < all; step++) {
+			int maxNumberOfX = p.BestJump(counter);
+			if (maxNumberOfX < 0) return 1.0; // a solution is as good as the end
+			counter += 1L << maxNumberOfX;
+		}
+		return Math.min(1.0, (double) counter / all);
+	}
+	// the number of clauses of every variable
+	private static int[] Occurrences(ClauseSet s) {
+		int n = global.getNumOfBits();
+		int[] occurrences = new int[n];
+		for (Clause c : s.clauses) {
+			for (int i = 0; i < n; i++) if ((c.mask & (1L << i)) != 0) occurrences[i]++;
+		}
+		return occurrences;
+	}
 }
 /**
  * Represents a set of clause.
  */
 class ClauseSet {
 	List<Clause> clauses;
-	// reads a DIMACS file
+	private PackedClauses packed; // built on demand from clauses
+	private String engineName = "scalar";
+	private SubsumerEngine engine; // built on demand from engineSource
+	private PackedClauses engineSource;
+	// the steps which bring a solution back to the variables of the DIMACS file, the last one first
+	private final List<UnaryOperator<Clause>> toOriginal = new ArrayList<UnaryOperator<Clause>>();
+	final int originalNumOfBits; // the number of variables in the DIMACS file
+	int tautologies = 0; // the clauses which were skipped, because they contain x and -x
+	String warning; // the warning of the DimacsParser, or null
+	private Function<Clause, String> dimacsWriter;
+	// reads a DIMACS file, it may be gzipped, see DimacsParser
 	public ClauseSet(String fileName) {
+		this(new DimacsParser(fileName));
+	}
+	// reads the clauses of the parser, then it closes the parser
+	public ClauseSet(DimacsParser parser) {
+		global.setNumberOfVariables(parser.numOfVariables);
+		clauses = new ArrayList<Clause>(parser.numOfClauses);
+		while (parser.NextClause()) AddLiterals(parser.literals, parser.size);
+		parser.Close();
+		warning = parser.warning;
+		originalNumOfBits = global.getNumOfBits();
+	}
+	// builds the clause set from clauses given by their DIMACS literals, without a file
+	// numOfVariables may not be bigger than 62
+	public ClauseSet(int numOfVariables, List<int[]> cnfClauses) {
+		global.setNumberOfBits(numOfVariables);
 		clauses = new ArrayList<Clause>();
-		try {
-			BufferedReader file = new BufferedReader(new FileReader(fileName));
-			String clause = file.readLine();
-			while (clause != null) {
-				if (clause.length() > 0 &&
-					clause.charAt(0) != '0' && 
-					clause.charAt(0) != 'c' &&
-					clause.charAt(0) != 'p' &&
-					clause.charAt(0) != '%') AddCNFClause(clause);
-				if (clause.length() > 0 && clause.charAt(0) == 'p') global.setNumberOfBits(clause);
-				clause = file.readLine();
-			}
-			file.close();
-		} catch (IOException e) { System.out.println(e); System.exit(-1); }
+		for (int[] literals : cnfClauses) AddLiterals(literals);
+		originalNumOfBits = numOfVariables;
+	}
+	// the clauses of a compiled file, they stay in the mapped file, and the packed clauses
+	// are copied from there, so no Clause is made for them
+	public ClauseSet(CompiledCnf cnf) {
+		global.setNumberOfVariables(cnf.numOfBits);
+		clauses = cnf.Clauses();
+		packed = cnf.Packed();
+		tautologies = cnf.tautologies;
+		originalNumOfBits = cnf.numOfBits;
+	}
+	// a part of another clause set, the clauses use the same bits, see ComponentSolver
+	public ClauseSet(List<Clause> clauses, int numOfBits) {
+		this.clauses = clauses;
+		originalNumOfBits = numOfBits;
 	}
 	// it adds one line of the DIMACS, which represents a clause, to the clause set
 	public void AddCNFClause(String cnfClause) {
-		int i = 0;
-		Clause c = new Clause();
-		while (i < cnfClause.length()) {
-			while (cnfClause.charAt(i) == ' ') i++;
-			String lit = "";
-			while (i < cnfClause.length() && cnfClause.charAt(i) != ' ') {
-				lit += cnfClause.charAt(i);
-				i++;
-			}
-			int literal = Integer.parseInt(lit);
+		String[] fields = cnfClause.trim().split("\\s+");
+		int[] literals = new int[fields.length];
+		int size = 0;
+		for (String field : fields) {
+			if (field.isEmpty()) continue;
+			int literal = Integer.parseInt(field);
 			if (literal == 0) break;
+			literals[size++] = literal;
+		}
+		AddLiterals(literals, size);
+	}
+	// it adds a clause given by its DIMACS literals, without the closing 0
+	public void AddLiterals(int[] literals) {
+		AddLiterals(literals, literals.length);
+	}
+	// the same for the first size literals
+	public void AddLiterals(int[] literals, int size) {
+		if (!(clauses instanceof ArrayList)) clauses = new ArrayList<Clause>(clauses); // read-only, see CompiledCnf
+		boolean tautology = false;
+		Clause c = new Clause();
+		for (int i = 0; i < size; i++) {
+			int literal = literals[i];
+			if (c.HasLiteral(-literal)) tautology = true;
 			c.SetLiteralZeroBased(literal);
 		}
-		clauses.add(c);
+		if (tautology) tautologies++; // it is always true, and it could not be represented
+		else clauses.add(c);
 	}
 	// it returns those clauses which subsume the input clause
 	public List<Clause> SubsumersOf(Clause c) {
@@ -134,6 +2211,645 @@ class ClauseSet {
 		}
 		return subsumers;
 	}
+	// moves bit i of every clause to bit map[i], see VariableOrder
+	// ToOriginal moves the bits of a solution back
+	public void Reorder(int[] map) {
+		int[] back = new int[map.length];
+		for (int i = 0; i < map.length; i++) back[map[i]] = i;
+		List<Clause> permuted = new ArrayList<Clause>(clauses.size());
+		for (Clause c : clauses) permuted.add(c.Permute(map));
+		clauses = permuted;
+		AddToOriginal(c -> c.Permute(back));
+		Changed();
+	}
+	// a preprocessing step changed the clauses, the step gives the way back for a solution
+	public void AddToOriginal(UnaryOperator<Clause> step) {
+		toOriginal.add(step);
+	}
+	// the clauses are in the variables of the DIMACS file, no variable was moved or removed
+	public boolean InOriginalVariables() {
+		return toOriginal.isEmpty() && dimacsWriter == null;
+	}
+	// the clauses were changed, the packed clauses and the engine have to be rebuilt
+	public void Changed() {
+		packed = null;
+		engine = null;
+	}
+	// returns the solution in the variables of the DIMACS file
+	public Clause ToOriginal(Clause solution) {
+		for (int i = toOriginal.size() - 1; i >= 0; i--) solution = toOriginal.get(i).apply(solution);
+		return solution;
+	}
+	// returns the solution as a DIMACS line of the variables of the DIMACS file
+	public String ToDimacs(Clause solution) {
+		Clause c = ToOriginal(solution);
+		return dimacsWriter != null ? dimacsWriter.apply(c) : c.ToString(originalNumOfBits);
+	}
+	// if the clause set was made from a bigger problem, like VariableEliminator does,
+	// the writer prints the solutions in the variables of that problem
+	public void SetDimacsWriter(Function<Clause, String> writer) {
+		dimacsWriter = writer;
+	}
+	// returns the packed copy of the clauses, it is rebuilt if clauses were added since the last call
+	public PackedClauses Packed() {
+		if (packed == null || packed.size != clauses.size()) packed = new PackedClauses(clauses);
+		return packed;
+	}
+	private static final List<String> ENGINES = Arrays.asList("scalar", "simd", "jump", "trie", "watch", "mru");
+	// selects the engine of BestJumpOfClearClause, see ENGINES
+	public void SetEngine(String name) {
+		if (!ENGINES.contains(name)) {
+			System.err.println("Unknown engine: " + name + ", the scalar engine is used.");
+			name = "scalar";
+		}
+		engineName = name;
+		engine = null;
+	}
+	public String EngineName() { return engineName; }
+	// returns the selected engine, it is rebuilt if the packed clauses were rebuilt
+	public SubsumerEngine Engine() {
+		PackedClauses p = Packed();
+		if (engine == null || engineSource != p) {
+			engineSource = p;
+			engine = NewEngine();
+		}
+		return engine;
+	}
+	// creates a new instance of the selected engine, for those who need their own one,
+	// because the engines keep state, and they are not thread-safe
+	public SubsumerEngine NewEngine() {
+		PackedClauses p = Packed();
+		if (engineName.equals("jump")) return new JumpOrderedClauses(p);
+		if (engineName.equals("trie")) return new ClauseTrie(p);
+		if (engineName.equals("watch")) return new WatchedClauses(p);
+		if (engineName.equals("mru")) return new HotClauseCache(p);
+		if (engineName.equals("simd")) {
+			try {
+				return new VectorEngine(p);
+			} catch (ReflectiveOperationException | LinkageError e) {
+				System.err.println("The simd engine is not available (" + e + "), the scalar engine is used.");
+				engineName = "scalar";
+			}
+		}
+		return p;
+	}
+	// returns the biggest NumberOfXFromRight of the subsumers of c, or -1 if c has no subsumer
+	// it does the same as SubsumersOfClearClause and the selection of the best subsumer together,
+	// but it does not create any list
+	public int BestJumpOfClearClause(ClearClause c) {
+		return Engine().BestJump(c.bits);
+	}
+}
+/**
+ * Finds the best subsumer of a counter.
+ * Every implementation has to return the same as the scalar one, PackedClauses.BestJump.
+ */
+interface SubsumerEngine {
+	// returns the biggest jump of the clauses which subsume counter, or -1 if there is no such clause
+	int BestJump(long counter);
+	// returns a line about the work of the engine so far, or null if it has nothing to tell
+	default String Statistics() { return null; }
+	// the clauses (or trie nodes) tested per step so far, or -1 if the engine does not know it
+	default double TestedPerStep() { return -1; }
+	// the steps so far, or -1 if the engine does not count them
+	default long Steps() { return -1; }
+	// adds the counts of other, an engine of the same class on the same clauses, to this one,
+	// so that the engines of the threads can be reported together, see EngineGroup
+	default void Add(SubsumerEngine other) {}
+}
+/**
+ * The engines of the threads of a solve, every thread gets its own engine, because the engines
+ * keep state. BestJump runs the engine of the calling thread. The statistics are the sum of the
+ * engines, they are made by Add into a new engine of the factory, if there is a factory, and
+ * TestedPerStep is the average of the engines weighted by their steps, it is read while they run.
+ */
+class EngineGroup implements SubsumerEngine {
+	private final Supplier<SubsumerEngine> factory; // it may be null, then there is no summed Statistics
+	private final List<SubsumerEngine> engines = Collections.synchronizedList(new ArrayList<SubsumerEngine>());
+	private final ThreadLocal<SubsumerEngine> local;
+	public EngineGroup(Supplier<SubsumerEngine> factory) {
+		this.factory = factory;
+		local = ThreadLocal.withInitial(() -> Register(factory.get()));
+	}
+	// the engine of the calling thread, it is made by the factory at the first call
+	public SubsumerEngine Local() { return local.get(); }
+	// adds an engine which is made elsewhere, like the engine of a component, see ComponentSolver
+	public SubsumerEngine Register(SubsumerEngine engine) {
+		engines.add(engine);
+		return engine;
+	}
+	@Override
+	public int BestJump(long counter) { return local.get().BestJump(counter); }
+	@Override
+	public long Steps() {
+		long steps = -1;
+		synchronized (engines) {
+			for (SubsumerEngine e : engines) if (e.Steps() >= 0) steps = Math.max(steps, 0) + e.Steps();
+		}
+		return steps;
+	}
+	@Override
+	public double TestedPerStep() {
+		double tested = 0;
+		long steps = 0;
+		synchronized (engines) {
+			for (SubsumerEngine e : engines) {
+				if (e.Steps() < 0) return e.TestedPerStep(); // it tests the same on every step
+				tested += e.TestedPerStep() * e.Steps();
+				steps += e.Steps();
+			}
+		}
+		return steps == 0 ? 0 : tested / steps;
+	}
+	@Override
+	public String Statistics() {
+		if (factory == null) return null;
+		SubsumerEngine sum = factory.get();
+		synchronized (engines) {
+			if (engines.isEmpty()) return null;
+			for (SubsumerEngine e : engines) sum.Add(e);
+		}
+		String statistics = sum.Statistics();
+		return statistics == null ? null : statistics + " (" + engines.size() + " threads)";
+	}
+}
+/**
+ * Packed copy of a clause list, stored as parallel arrays instead of Clause objects.
+ * mask[i] and bits[i] are the same as in the i.-th Clause,
+ * jump[i] is the precomputed NumberOfXFromRight of the i.-th Clause.
+ */
+class PackedClauses implements SubsumerEngine {
+	final long[] mask, bits;
+	final byte[] jump;
+	final int size;
+	public PackedClauses(long[] mask, long[] bits, byte[] jump) {
+		size = mask.length;
+		this.mask = mask;
+		this.bits = bits;
+		this.jump = jump;
+	}
+	public PackedClauses(List<Clause> clauses) {
+		size = clauses.size();
+		mask = new long[size];
+		bits = new long[size];
+		jump = new byte[size];
+		for (int i = 0; i < size; i++) {
+			Clause c = clauses.get(i);
+			mask[i] = c.mask;
+			bits[i] = c.bits;
+			jump[i] = c.NumberOfXFromRight();
+		}
+	}
+	@Override
+	public double TestedPerStep() { return size; }
+	// one pass over the arrays, it returns the biggest jump of the clauses which subsume counter,
+	// or -1 if there is no such clause
+	@Override
+	public int BestJump(long counter) {
+		int best = -1;
+		for (int i = 0; i < size; i++) {
+			if ((counter & mask[i]) == bits[i] && jump[i] > best) best = jump[i];
+		}
+		return best;
+	}
+	// the same as BestJump, but it returns the index of the clause, or -1 if there is no subsumer
+	public int BestClause(long counter) {
+		int best = -1, bestJump = -1;
+		for (int i = 0; i < size; i++) {
+			if ((counter & mask[i]) == bits[i] && jump[i] > bestJump) {
+				best = i;
+				bestJump = jump[i];
+			}
+		}
+		return best;
+	}
+	// counter is subsumed by no clause, it returns the biggest k, for which no clause subsumes
+	// any value of [counter, counter + 2^k), counter is a multiple of 2^k, and k <= numOfBits
+	// a clause disagrees with every value of the block if it disagrees with counter above bit k
+	public int ModelBlock(long counter, int numOfBits) {
+		int k = Math.min(Long.numberOfTrailingZeros(counter), numOfBits);
+		for (int i = 0; i < size; i++) {
+			long disagree = (counter & mask[i]) ^ bits[i];
+			k = Math.min(k, 63 - Long.numberOfLeadingZeros(disagree));
+		}
+		return k;
+	}
+}
+/**
+ * The clauses grouped by their jump, the bucket of the biggest jump comes first.
+ * The first subsumer found is in the highest non-empty bucket, so it is the best one,
+ * the rest of the clauses need not be tested.
+ */
+class JumpOrderedClauses implements SubsumerEngine {
+	private final long[] mask, bits;
+	private final byte[] bucketJump; // the jump of the clauses in the bucket, decreasing
+	private final int[] bucketEnd; // the bucket b is [bucketEnd[b-1], bucketEnd[b])
+	private long steps = 0, tested = 0;
+	public JumpOrderedClauses(PackedClauses p) {
+		int[] count = new int[65];
+		for (int i = 0; i < p.size; i++) count[p.jump[i]]++;
+		int buckets = 0;
+		for (int j = 0; j < count.length; j++) if (count[j] > 0) buckets++;
+		bucketJump = new byte[buckets];
+		bucketEnd = new int[buckets];
+		int[] next = new int[count.length]; // where the next clause of a jump goes
+		int b = 0, end = 0;
+		for (int j = count.length - 1; j >= 0; j--) {
+			if (count[j] == 0) continue;
+			next[j] = end;
+			end += count[j];
+			bucketJump[b] = (byte) j;
+			bucketEnd[b] = end;
+			b++;
+		}
+		mask = new long[p.size];
+		bits = new long[p.size];
+		for (int i = 0; i < p.size; i++) { // stable, so the clauses keep their order in a bucket
+			int k = next[p.jump[i]]++;
+			mask[k] = p.mask[i];
+			bits[k] = p.bits[i];
+		}
+	}
+	@Override
+	public int BestJump(long counter) {
+		steps++;
+		int i = 0;
+		for (int b = 0; b < bucketEnd.length; b++) {
+			int end = bucketEnd[b];
+			for (; i < end; i++) {
+				if ((counter & mask[i]) == bits[i]) {
+					tested += i + 1;
+					return bucketJump[b];
+				}
+			}
+		}
+		tested += i;
+		return -1;
+	}
+	@Override
+	public double TestedPerStep() { return steps == 0 ? 0 : (double) tested / steps; }
+	@Override
+	public long Steps() { return steps; }
+	@Override
+	public void Add(SubsumerEngine other) {
+		JumpOrderedClauses o = (JumpOrderedClauses) other;
+		steps += o.steps;
+		tested += o.tested;
+	}
+	@Override
+	public String Statistics() {
+		long all = steps * mask.length;
+		return String.format("Jump index: %d steps, %d of %d clause tests skipped (%.1f%%)",
+				steps, all - tested, all, all == 0 ? 0.0 : 100.0 * (all - tested) / all);
+	}
+}
+/**
+ * A decision tree over the literals of the clauses, it tests the bits of the counter from high to low.
+ * An inner node tests one bit, the counter goes on to the child of its bit value, and also to the
+ * child of those clauses which do not contain that bit (X). A small subtree is a leaf, which tests
+ * its clauses one by one. Only the clauses on the paths of the counter are visited.
+ * A clause which ends at a node has a bigger jump than every clause below the node,
+ * so the clauses below such a node are dropped, and the walk stops there.
+ */
+class ClauseTrie implements SubsumerEngine {
+	private static final int LEAF_SIZE = 8;
+	// the tree, node 0 is the root, nodeBit is -1 at a leaf, a missing child is -1
+	private int[] nodeBit, childX, child0, child1, leafFrom, leafTo;
+	private byte[] finished; // the best jump of the clauses which end at the node, or -1
+	private byte[] maxJump; // the best jump in the subtree, or -1
+	private int nodes = 0;
+	// the clauses of the leaves
+	private final long[] leafMask, leafBits;
+	private final byte[] leafJump;
+	private int leafClauses = 0;
+	private final int[] stack = new int[256];
+	private long steps = 0, visited = 0;
+	public ClauseTrie(PackedClauses p) {
+		int capacity = 16;
+		nodeBit = new int[capacity]; childX = new int[capacity]; child0 = new int[capacity];
+		child1 = new int[capacity]; leafFrom = new int[capacity]; leafTo = new int[capacity];
+		finished = new byte[capacity]; maxJump = new byte[capacity];
+		leafMask = new long[p.size];
+		leafBits = new long[p.size];
+		leafJump = new byte[p.size];
+		int[] all = new int[p.size];
+		for (int i = 0; i < p.size; i++) all[i] = i;
+		Build(p, all, p.size, 62);
+	}
+	// builds the subtree of the clauses idx[0..count), which have the same literals above bit pos
+	private int Build(PackedClauses p, int[] idx, int count, int pos) {
+		int node = NewNode();
+		long below = (1L << (pos + 1)) - 1; // the bits pos..0
+		byte done = -1, best = -1;
+		int[] rest = new int[count];
+		int r = 0;
+		long literals = 0;
+		for (int k = 0; k < count; k++) {
+			int i = idx[k];
+			if ((p.mask[i] & below) == 0) {
+				if (p.jump[i] > done) done = p.jump[i];
+			} else {
+				rest[r++] = i;
+				literals |= p.mask[i] & below;
+				if (p.jump[i] > best) best = p.jump[i];
+			}
+		}
+		finished[node] = done;
+		nodeBit[node] = -1;
+		if (done >= 0 || r <= LEAF_SIZE) { // a leaf
+			leafFrom[node] = leafClauses;
+			if (done < 0) {
+				for (int k = 0; k < r; k++) {
+					leafMask[leafClauses] = p.mask[rest[k]];
+					leafBits[leafClauses] = p.bits[rest[k]];
+					leafJump[leafClauses] = p.jump[rest[k]];
+					leafClauses++;
+				}
+			}
+			leafTo[node] = leafClauses;
+			maxJump[node] = done >= 0 ? done : best;
+			return node;
+		}
+		int bit = 63 - Long.numberOfLeadingZeros(literals); // the highest bit used below pos
+		long bitMask = 1L << bit;
+		int[][] parts = new int[3][r]; // X, 0, 1
+		int[] sizes = new int[3];
+		for (int k = 0; k < r; k++) {
+			int i = rest[k];
+			int part = (p.mask[i] & bitMask) == 0 ? 0 : (p.bits[i] & bitMask) == 0 ? 1 : 2;
+			parts[part][sizes[part]++] = i;
+		}
+		int x = sizes[0] > 0 ? Build(p, parts[0], sizes[0], bit - 1) : -1;
+		int zero = sizes[1] > 0 ? Build(p, parts[1], sizes[1], bit - 1) : -1;
+		int one = sizes[2] > 0 ? Build(p, parts[2], sizes[2], bit - 1) : -1;
+		nodeBit[node] = bit;
+		childX[node] = x;
+		child0[node] = zero;
+		child1[node] = one;
+		maxJump[node] = best;
+		return node;
+	}
+	private int NewNode() {
+		if (nodes == nodeBit.length) {
+			int capacity = nodes * 2;
+			nodeBit = Arrays.copyOf(nodeBit, capacity); childX = Arrays.copyOf(childX, capacity);
+			child0 = Arrays.copyOf(child0, capacity); child1 = Arrays.copyOf(child1, capacity);
+			leafFrom = Arrays.copyOf(leafFrom, capacity); leafTo = Arrays.copyOf(leafTo, capacity);
+			finished = Arrays.copyOf(finished, capacity); maxJump = Arrays.copyOf(maxJump, capacity);
+		}
+		return nodes++;
+	}
+	@Override
+	public int BestJump(long counter) {
+		steps++;
+		int best = -1;
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int n = stack[--top];
+			if (maxJump[n] <= best) continue; // nothing better below
+			visited++;
+			if (nodeBit[n] < 0) {
+				if (finished[n] >= 0) {
+					best = finished[n];
+					continue;
+				}
+				for (int i = leafFrom[n]; i < leafTo[n]; i++) {
+					if ((counter & leafMask[i]) == leafBits[i] && leafJump[i] > best) best = leafJump[i];
+				}
+				continue;
+			}
+			int c = ((counter >>> nodeBit[n]) & 1) == 0 ? child0[n] : child1[n];
+			int x = childX[n];
+			if (c < 0) { c = x; x = -1; }
+			if (x >= 0 && maxJump[x] > maxJump[c]) { int t = x; x = c; c = t; }
+			if (x >= 0) stack[top++] = x;
+			if (c >= 0) stack[top++] = c; // the more promising child is visited first
+		}
+		return best;
+	}
+	@Override
+	public double TestedPerStep() { return steps == 0 ? 0 : (double) visited / steps; }
+	@Override
+	public long Steps() { return steps; }
+	@Override
+	public void Add(SubsumerEngine other) {
+		ClauseTrie o = (ClauseTrie) other;
+		steps += o.steps;
+		visited += o.visited;
+	}
+	@Override
+	public String Statistics() {
+		return String.format("Trie: %d nodes, %d steps, %.1f nodes visited per step",
+				nodes, steps, steps == 0 ? 0.0 : (double) visited / steps);
+	}
+}
+/**
+ * Incremental engine, it keeps the clauses which subsume the counter between the steps.
+ * Every other clause watches one of its literals which disagrees with the counter,
+ * the highest such literal, because the high bits of the counter change rarely.
+ * The watch list (bit, value) holds the clauses which have to be examined again
+ * when the bit of the counter becomes value. After a step only the watch lists of the
+ * changed bits and the subsumers are examined, the rest of the clauses are not touched.
+ */
+class WatchedClauses implements SubsumerEngine {
+	private final long[] mask, bits;
+	private final byte[] jump;
+	private final int[][] watches = new int[128][]; // the list of (bit, value) is 2 * bit + value
+	private final int[] watchCount = new int[128];
+	private int[] subsumers;
+	private int subsumerCount = 0;
+	private long counter;
+	private boolean started = false;
+	private long steps = 0, examined = 0;
+	public WatchedClauses(PackedClauses p) {
+		mask = p.mask;
+		bits = p.bits;
+		jump = p.jump;
+		subsumers = new int[16];
+		for (int i = 0; i < watches.length; i++) watches[i] = new int[16];
+	}
+	@Override
+	public int BestJump(long newCounter) {
+		steps++;
+		long changed = counter ^ newCounter;
+		counter = newCounter;
+		if (!started) { // every clause is examined once
+			started = true;
+			for (int c = 0; c < mask.length; c++) Watch(c);
+			examined += mask.length;
+		} else {
+			int k = 0;
+			for (int i = 0; i < subsumerCount; i++) { // a changed literal makes a subsumer disagree
+				int c = subsumers[i];
+				if ((mask[c] & changed) != 0) Watch(c);
+				else subsumers[k++] = c;
+			}
+			examined += subsumerCount;
+			subsumerCount = k;
+			while (changed != 0) {
+				int bit = Long.numberOfTrailingZeros(changed);
+				changed &= changed - 1;
+				int list = 2 * bit + (int) ((newCounter >>> bit) & 1);
+				int[] watching = watches[list];
+				int n = watchCount[list];
+				watchCount[list] = 0; // every clause leaves this list, it agrees with the counter on bit
+				for (int i = 0; i < n; i++) Watch(watching[i]);
+				examined += n;
+			}
+		}
+		int best = -1;
+		for (int i = 0; i < subsumerCount; i++) {
+			if (jump[subsumers[i]] > best) best = jump[subsumers[i]];
+		}
+		return best;
+	}
+	// the clause c watches its highest literal which disagrees with the counter,
+	// or it becomes a subsumer if there is no such literal
+	private void Watch(int c) {
+		long disagree = (counter & mask[c]) ^ bits[c];
+		if (disagree == 0) {
+			if (subsumerCount == subsumers.length) subsumers = Arrays.copyOf(subsumers, subsumerCount * 2);
+			subsumers[subsumerCount++] = c;
+		} else {
+			int bit = 63 - Long.numberOfLeadingZeros(disagree);
+			int list = 2 * bit + (int) ((bits[c] >>> bit) & 1);
+			if (watchCount[list] == watches[list].length) {
+				watches[list] = Arrays.copyOf(watches[list], watchCount[list] * 2);
+			}
+			watches[list][watchCount[list]++] = c;
+		}
+	}
+	@Override
+	public double TestedPerStep() { return steps == 0 ? 0 : (double) examined / steps; }
+	@Override
+	public long Steps() { return steps; }
+	@Override
+	public void Add(SubsumerEngine other) {
+		WatchedClauses o = (WatchedClauses) other;
+		steps += o.steps;
+		examined += o.examined;
+	}
+	@Override
+	public String Statistics() {
+		return String.format("Watches: %d steps, %.1f clauses examined per step of %d clauses",
+				steps, steps == 0 ? 0.0 : (double) examined / steps, mask.length);
+	}
+}
+/**
+ * The scalar scan with a small move-to-front cache of the clauses which gave the best jump lately.
+ * The cache is tested first, a subsumer in it whose jump is the biggest one possible at the counter
+ * is the best, so the full scan is skipped. On a miss the full scan finds the best clause, and it
+ * goes to the front of the cache. If the cache hits rarely, it is not tested for a while, and the
+ * while doubles as long as it does not hit better, so an instance without hot clauses runs the
+ * plain scalar scan.
+ * The counters of a walk from 0 are multiples of 2^jump, so no jump may be bigger than the trailing
+ * zeros of the counter, then it returns the same as the scalar engine. At any other counter it may
+ * return a smaller jump, which is still covered by a clause.
+ */
+class HotClauseCache implements SubsumerEngine {
+	private static final int CACHE_SIZE = 8;
+	private static final int WINDOW = 4096; // the steps of which the hit rate is measured
+	private static final int MAX_PAUSE = 1 << 20; // the most steps without the cache
+	private final PackedClauses p;
+	private final int[] cache = new int[CACHE_SIZE]; // indices of p, the last winner first
+	private int cached = 0;
+	private final int maxJump; // the biggest jump of the clauses
+	private int windowSteps = 0, windowHits = 0, pause = 0, nextPause = WINDOW;
+	private long steps = 0, hits = 0, tested = 0, paused = 0;
+	public HotClauseCache(PackedClauses p) {
+		this.p = p;
+		int max = -1;
+		for (int i = 0; i < p.size; i++) max = Math.max(max, p.jump[i]);
+		maxJump = max;
+	}
+	@Override
+	public int BestJump(long counter) {
+		steps++;
+		if (pause > 0) {
+			pause--;
+			paused++;
+			tested += p.size;
+			return p.BestJump(counter);
+		}
+		if (++windowSteps == WINDOW) { // less than 1/8 hits pauses the cache
+			if (windowHits < WINDOW / 8) {
+				pause = nextPause;
+				nextPause = Math.min(2 * nextPause, MAX_PAUSE);
+			} else nextPause = WINDOW;
+			windowSteps = 0;
+			windowHits = 0;
+		}
+		int limit = Math.min(Long.numberOfTrailingZeros(counter), maxJump);
+		int best = -1;
+		for (int k = 0; k < cached; k++) {
+			int i = cache[k];
+			if ((counter & p.mask[i]) == p.bits[i] && (best < 0 || p.jump[i] > p.jump[cache[best]])) {
+				best = k;
+				if (p.jump[i] >= limit) break;
+			}
+		}
+		if (best >= 0 && p.jump[cache[best]] >= limit) {
+			hits++;
+			windowHits++;
+			tested += best + 1;
+			return p.jump[MoveToFront(best, cache[best])];
+		}
+		tested += cached + p.size;
+		int i = p.BestClause(counter);
+		if (i < 0) return -1;
+		int k = 0;
+		while (k < cached && cache[k] != i) k++;
+		if (k == cached && cached < CACHE_SIZE) cached++;
+		return p.jump[MoveToFront(Math.min(k, CACHE_SIZE - 1), i)];
+	}
+	// puts clause i to the front of the cache, the entries before position k move back by one
+	private int MoveToFront(int k, int i) {
+		System.arraycopy(cache, 0, cache, 1, k);
+		cache[0] = i;
+		return i;
+	}
+	// the share of the steps whose best clause was found in the cache
+	public double HitRate() { return steps == 0 ? 0 : (double) hits / steps; }
+	@Override
+	public double TestedPerStep() { return steps == 0 ? 0 : (double) tested / steps; }
+	@Override
+	public long Steps() { return steps; }
+	@Override
+	public void Add(SubsumerEngine other) {
+		HotClauseCache o = (HotClauseCache) other;
+		steps += o.steps;
+		hits += o.hits;
+		tested += o.tested;
+		paused += o.paused;
+	}
+	@Override
+	public String Statistics() {
+		return String.format("Hot clauses: %d steps, %.1f%% cache hits, %.1f%% without the cache, "
+				+ "%.1f clauses tested per step of %d clauses",
+				steps, 100.0 * HitRate(), steps == 0 ? 0.0 : 100.0 * paused / steps, TestedPerStep(), p.size);
+	}
+}
+/**
+ * SIMD version of PackedClauses.BestJump.
+ * The kernel is in CCCVectorKernel.java, it is loaded by reflection,
+ * so this file can be compiled and run without the incubating Vector API module.
+ */
+class VectorEngine implements SubsumerEngine {
+	private final LongToIntFunction kernel;
+	private final int size;
+	public VectorEngine(PackedClauses p) throws ReflectiveOperationException {
+		size = p.size;
+		kernel = (LongToIntFunction) Class.forName("CCCVectorKernel")
+				.getConstructor(long[].class, long[].class, byte[].class, int.class)
+				.newInstance(p.mask, p.bits, p.jump, p.size);
+	}
+	@Override
+	public int BestJump(long counter) {
+		return kernel.applyAsInt(counter);
+	}
+	@Override
+	public double TestedPerStep() { return size; }
 }
 /**
  * This class represents a clause, a set of literals.
@@ -167,21 +2883,43 @@ class Clause {
 	}
 	// checks whether this subsumes the input clause or not
 	public boolean Subsumes(Clause b) {
-		if (mask > b.mask) return false;
-		long cMask = mask & b.mask;
-		return (bits & cMask) == (b.bits & cMask);
+		if ((mask & ~b.mask) != 0) return false; // every literal of this has to be in b
+		return (bits & mask) == (b.bits & mask);
+	}
+	// checks whether the literal is in the clause, -5 means the 5.-th variable is negative
+	public boolean HasLiteral(int literal) {
+		long indexMask1 = 1L << (global.getNumOfBits() - Math.abs(literal));
+		return (mask & indexMask1) != 0 && ((bits & indexMask1) != 0) == (literal > 0);
 	}
 	// returns the how many variable are not present after the last literal   
 	public byte NumberOfXFromRight() {
 		byte xCounter = 0;
 		long bitMask = 1L;
-		for (int i = 0; i < global.getNumOfBits(); i++) {
+		int numOfBits = global.getNumOfBits();
+		for (int i = 0; i < numOfBits; i++) {
 			if ((mask & bitMask) == 0) xCounter++;
 			else break;
 			bitMask <<= 1;
 		}
 		return xCounter;
 	}
+	// moves bit i to bit map[i], the bits from map.length on are not moved
+	public Clause Permute(int[] map) {
+		Clause c = new Clause();
+		c.mask = PermuteBits(mask, map);
+		c.bits = PermuteBits(bits, map);
+		return c;
+	}
+	static long PermuteBits(long x, int[] map) {
+		long y = x & (-1L << map.length);
+		x &= ~(-1L << map.length);
+		while (x != 0) {
+			int i = Long.numberOfTrailingZeros(x);
+			x &= x - 1;
+			y |= 1L << map[i];
+		}
+		return y;
+	}
 	// converts a long into clause, it creates always a clear clause 
 	public static ClearClause ToClause(long id) {
 		ClearClause c = new ClearClause();
@@ -190,11 +2928,15 @@ class Clause {
 	}
 	@Override
 	public String toString() {
+		return ToString(global.getNumOfBits());
+	}
+	// the clause in DIMACS, as if the file had numOfBits variables
+	public String ToString(int numOfBits) {
 		StringBuilder s = new StringBuilder();
-		long indexMask = 1L << global.getNumOfBits() - 1;
-		for (int i = global.getNumOfBits() - 1; i >= 0; i--) {
+		long indexMask = 1L << numOfBits - 1;
+		for (int i = numOfBits - 1; i >= 0; i--) {
 			if ((mask & indexMask) > 0) {
-				int literal = global.getNumOfBits() - i;
+				int literal = numOfBits - i;
 				if ((bits & indexMask) > 0) s.append(literal);
 				else s.append(-literal);
 				s.append(' ');
@@ -219,6 +2961,12 @@ class ClearClause extends Clause {
 	public void add(long toAdd) {
 		bits += toAdd;
 	}
+	// jumps to the first value after the block of 2^numberOfX values which contains the counter,
+	// it is the same as add(1L << numberOfX) if the counter is a multiple of 2^numberOfX,
+	// as it always is when the counting starts from 0
+	public void skipBlock(int numberOfX) {
+		bits = (bits | ((1L << numberOfX) - 1)) + 1;
+	}
 	// tests a bit
 	public boolean testBit(int n) {
 		return (bits & (1L << n)) > 0;
@@ -0,0 +1,273 @@
+import java.io.*;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.ToLongBiFunction;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+/**
+ * Benchmarks of the solver variants, Count Clear Clauses SAT Solver.
+ * Every variant declares its own global, ClauseSet, Clause and SATCounter, so they cannot be
+ * compiled together: each variant is compiled with its KernelDriver into a directory of its own,
+ * and it is loaded by a class loader of its own.
+ * It measures the hot kernels through the KernelDriver of the variant, the loops run in the
+ * code of the variant, and the end-to-end solves through the main of the variant.
+ * Every measurement has warm-up rounds, then the mean and the standard deviation of the
+ * measured rounds are printed, and for the solves the steps of the counter and their average jump.
+ * The variants with learned jump clauses get a solve-learn row with -learn 1024 next to the solve row.
+ * Regression runs: -csv saves the results as a baseline, -baseline compares the results with a
+ * saved one, and flags the benchmarks which got slower by more than the tolerance and the
+ * noise of the runs, or whose steps changed. The corpus of the regression runs is made by CNFGenerator -corpus.
+ * It runs in one JVM without forks, so its times are only a quick look, the times to trust come
+ * from the JMH benchmarks of build.gradle. The steps it reports do not depend on the JVM.
+ * Run it from the directory of the solvers: java bench/CCCBenchmark.java [options] [cnf files or dirs]
+ */
+public class CCCBenchmark {
+	static final String[] VARIANTS = { "CCC_v1Dot0", "CCC_v1Dot1", "CCC_BigInt_v1Dot2", "CCCBomberv1Dot0" };
+	static final String UNLIMITED = "CCC_BigInt_v1Dot2"; // the others may not have more than 62 variables
+	static final String[] KERNELS = { "isSubsumedBy", "NumberOfXFromRight", "SubsumersOfClearClause", "add" };
+	// the fixed instances, if no file is given: random 3-SAT with variables, clauses and seed
+	static final int[][] INSTANCES = { { 20, 91, 1 }, { 30, 128, 2 }, { 40, 170, 3 } };
+	public static void main(String[] args) throws Exception {
+		int warmup = 3, rounds = 5;
+		String root = ".";
+		List<String> variants = new ArrayList<String>(Arrays.asList(VARIANTS));
+		List<String> files = new ArrayList<String>();
+		boolean kernels = true, solves = true;
+		String csv = null, baseline = null;
+		double tolerance = 0.2;
+		for (int i = 0; i < args.length; i++) {
+			boolean hasValue = i + 1 < args.length;
+			if (args[i].equals("-warmup") && hasValue) warmup = Integer.parseInt(args[++i]);
+			else if (args[i].equals("-rounds") && hasValue) rounds = Integer.parseInt(args[++i]);
+			else if (args[i].equals("-root") && hasValue) root = args[++i];
+			else if (args[i].equals("-variants") && hasValue) variants = Arrays.asList(args[++i].split(","));
+			else if (args[i].equals("-kernels")) solves = false;
+			else if (args[i].equals("-solves")) kernels = false;
+			else if (args[i].equals("-csv") && hasValue) csv = args[++i];
+			else if (args[i].equals("-baseline") && hasValue) baseline = args[++i];
+			else if (args[i].equals("-tolerance") && hasValue) tolerance = Double.parseDouble(args[++i]);
+			else if (!args[i].startsWith("-")) files.add(args[i]);
+			else {
+				System.out.println("Usage: java bench/CCCBenchmark.java [options] [cnf files]");
+				System.out.println("  -root dir            the directory of the solvers, default is .");
+				System.out.println("  -variants a,b        the variants, default is all of them");
+				System.out.println("  -warmup n            warm-up rounds, default is 3");
+				System.out.println("  -rounds n            measured rounds, default is 5");
+				System.out.println("  -kernels             only the kernels");
+				System.out.println("  -solves              only the end-to-end solves");
+				System.out.println("  -csv file            saves the results, it can be the baseline of a later run");
+				System.out.println("  -baseline file       compares the results with a saved run, the exit code is 1");
+				System.out.println("                       if there is a regression");
+				System.out.println("  -tolerance x         a benchmark is slower, if its mean grew by more than x,");
+				System.out.println("                       default is 0.2");
+				System.out.println("Without cnf files it generates fixed random 3-SAT instances,");
+				System.out.println("a directory means all the cnf files in it.");
+				return;
+			}
+		}
+		Path work = Files.createTempDirectory("cccbench");
+		files = Expand(files);
+		if (files.isEmpty()) {
+			for (int[] instance : INSTANCES) files.add(Generate(work, instance[0], instance[1], instance[2]));
+		}
+		Results results = new Results(baseline, tolerance);
+		System.out.printf("%-24s %-20s %-28s %14s %12s %12s %8s%n", "benchmark", "variant", "instance", "mean", "sd", "steps", "jump");
+		for (String variant : variants) {
+			ClassLoader loader = Compile(Paths.get(root), variant, work);
+			for (String file : files) {
+				String instance = Paths.get(file).getFileName().toString();
+				if (!variant.equals(UNLIMITED) && Variables(file) > 62) continue;
+				ToLongBiFunction<String, Integer> driver = Driver(loader, file);
+				if (kernels) {
+					for (String kernel : KERNELS) {
+						if (driver.applyAsLong(kernel, 1) < 0) continue; // the variant has no such kernel
+						int n = kernel.equals("SubsumersOfClearClause") ? 1 << 12 : 1 << 22;
+						double[] times = Measure(warmup, rounds, () -> driver.applyAsLong(kernel, n));
+						results.Add(kernel, variant, instance, times, n, "ns/op", -1, 0);
+					}
+				}
+				if (solves) {
+					Method main = loader.loadClass(variant).getMethod("main", String[].class);
+					double[] times = Measure(warmup, rounds, () -> Solve(main, file));
+					long steps = Quiet(() -> driver.applyAsLong("steps", 0));
+					double jump = steps > 0 ? (double) Quiet(() -> driver.applyAsLong("jumps", 0)) / steps : 0;
+					results.Add("solve", variant, instance, times, 1e6, "ms", steps, jump);
+					if (Quiet(() -> driver.applyAsLong("learnSteps", 0)) >= 0) {
+						times = Measure(warmup, rounds, () -> Solve(main, "-learn", "1024", file));
+						steps = Quiet(() -> driver.applyAsLong("learnSteps", 0));
+						jump = steps > 0 ? (double) Quiet(() -> driver.applyAsLong("learnJumps", 0)) / steps : 0;
+						results.Add("solve-learn", variant, instance, times, 1e6, "ms", steps, jump);
+					}
+				}
+			}
+		}
+		if (csv != null) results.Save(csv);
+		if (baseline != null) {
+			System.out.println(results.regressions + " regressions against " + baseline);
+			if (results.regressions > 0) System.exit(1);
+		}
+	}
+	// the files of the directories are listed in the order of their names
+	static List<String> Expand(List<String> names) throws IOException {
+		List<String> files = new ArrayList<String>();
+		for (String name : names) {
+			Path path = Paths.get(name);
+			if (!Files.isDirectory(path)) {
+				files.add(name);
+				continue;
+			}
+			try (Stream<Path> list = Files.list(path)) {
+				list.map(Path::toString).filter(f -> f.endsWith(".cnf")).sorted().forEach(files::add);
+			}
+		}
+		return files;
+	}
+	// the number of variables in the p line of the file
+	static int Variables(String file) throws IOException {
+		try (BufferedReader r = Files.newBufferedReader(Paths.get(file))) {
+			for (String line = r.readLine(); line != null; line = r.readLine()) {
+				String[] fields = line.trim().split("\\s+");
+				if (fields.length >= 3 && fields[0].equals("p")) return Integer.parseInt(fields[2]);
+			}
+		}
+		return 0;
+	}
+	// compiles the variant and its driver into work/variant, and returns a class loader of them
+	static ClassLoader Compile(Path root, String variant, Path work) throws IOException {
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		if (compiler == null) throw new IllegalStateException("a JDK is needed, the compiler was not found");
+		Path out = Files.createDirectories(work.resolve(variant));
+		String driver = root.resolve("bench").resolve("KernelDriver_" + variant.replaceFirst("^CCC_?", "") + ".java").toString();
+		int result = compiler.run(null, null, null, "-nowarn", "-d", out.toString(),
+				root.resolve(variant + ".java").toString(), driver);
+		if (result != 0) throw new IllegalStateException(variant + " could not be compiled");
+		// the parent is the platform loader, so the classes of the variants do not mix
+		return new URLClassLoader(new URL[] { out.toUri().toURL() }, ClassLoader.getPlatformClassLoader());
+	}
+	@SuppressWarnings("unchecked")
+	static ToLongBiFunction<String, Integer> Driver(ClassLoader loader, String file) throws Exception {
+		Constructor<?> constructor = loader.loadClass("KernelDriver").getDeclaredConstructor(String.class);
+		constructor.setAccessible(true);
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		try {
+			return (ToLongBiFunction<String, Integer>) constructor.newInstance(file);
+		} finally {
+			System.setOut(out);
+		}
+	}
+	// runs the main of the variant, its output is dropped
+	static long Solve(Method main, String... args) {
+		return Quiet(() -> {
+			try {
+				main.invoke(null, (Object) args);
+			} catch (ReflectiveOperationException e) {
+				throw new IllegalStateException(e);
+			}
+			return 0;
+		});
+	}
+	// runs the work, and drops what it prints
+	static long Quiet(Work work) {
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		try {
+			return work.Run();
+		} finally {
+			System.setOut(out);
+		}
+	}
+	interface Work {
+		long Run();
+	}
+	static long sink; // the checksums go here, so the work is not optimized away
+	// returns the nanoseconds of the measured rounds
+	static double[] Measure(int warmup, int rounds, Work work) {
+		for (int i = 0; i < warmup; i++) sink += work.Run();
+		double[] times = new double[rounds];
+		for (int i = 0; i < rounds; i++) {
+			long start = System.nanoTime();
+			sink += work.Run();
+			times[i] = System.nanoTime() - start;
+		}
+		return times;
+	}
+	/**
+	 * The results of a run, they are printed, compared with the baseline, and saved as CSV:
+	 * benchmark,variant,instance,mean,sd,unit,steps,averageJump
+	 * steps is -1 for the kernels.
+	 */
+	static class Results {
+		private final List<String> lines = new ArrayList<String>();
+		private final Map<String, String[]> baseline = new HashMap<String, String[]>();
+		private final double tolerance;
+		int regressions = 0;
+		Results(String baselineFile, double tolerance) throws IOException {
+			this.tolerance = tolerance;
+			if (baselineFile == null) return;
+			for (String line : Files.readAllLines(Paths.get(baselineFile))) {
+				String[] fields = line.split(",");
+				if (fields.length == 8 && !fields[0].equals("benchmark")) baseline.put(fields[0] + "," + fields[1] + "," + fields[2], fields);
+			}
+		}
+		void Add(String benchmark, String variant, String instance, double[] times, double per, String unit, long steps, double jump) {
+			double mean = 0, sd = 0;
+			for (double t : times) mean += t / per;
+			mean /= times.length;
+			for (double t : times) sd += (t / per - mean) * (t / per - mean);
+			sd = times.length > 1 ? Math.sqrt(sd / (times.length - 1)) : 0;
+			System.out.printf("%-24s %-20s %-28s %8.3f %-5s %12.3f %12s %8s%n", benchmark, variant, instance, mean, unit, sd,
+					steps < 0 ? "" : steps, steps < 0 ? "" : String.format("%.2f", jump));
+			lines.add(String.format(Locale.ROOT, "%s,%s,%s,%.4f,%.4f,%s,%d,%.4f", benchmark, variant, instance, mean, sd, unit, steps, jump));
+			String[] old = baseline.get(benchmark + "," + variant + "," + instance);
+			if (old == null) return;
+			double oldMean = Double.parseDouble(old[3]), oldSd = Double.parseDouble(old[4]);
+			// it has to be slower by more than the noise of the two runs, too
+			if (mean > oldMean * (1 + tolerance) && mean - oldMean > 2 * Math.max(sd, oldSd)) {
+				regressions++;
+				System.out.printf("  REGRESSION: %.3f %s, it was %.3f %s (+%.0f%%)%n", mean, unit, oldMean, unit, (mean / oldMean - 1) * 100);
+			}
+			if (Long.parseLong(old[6]) != steps) {
+				regressions++;
+				System.out.println("  REGRESSION: " + steps + " steps, it was " + old[6] + " steps");
+			}
+		}
+		void Save(String file) throws IOException {
+			List<String> all = new ArrayList<String>();
+			all.add("benchmark,variant,instance,mean,sd,unit,steps,averageJump");
+			all.addAll(lines);
+			Files.write(Paths.get(file), all);
+		}
+	}
+	// writes a random 3-SAT instance into the directory, and returns its name
+	static String Generate(Path dir, int variables, int clauses, int seed) throws IOException {
+		Path file = dir.resolve("rand3-" + variables + "-" + clauses + "-" + seed + ".cnf");
+		Random random = new Random(seed);
+		try (PrintWriter w = new PrintWriter(Files.newBufferedWriter(file))) {
+			w.println("p cnf " + variables + " " + clauses);
+			for (int i = 0; i < clauses; i++) {
+				int a = 1 + random.nextInt(variables), b, c;
+				do b = 1 + random.nextInt(variables); while (b == a);
+				do c = 1 + random.nextInt(variables); while (c == a || c == b);
+				w.println(Sign(random, a) + " " + Sign(random, b) + " " + Sign(random, c) + " 0");
+			}
+		}
+		return file.toString();
+	}
+	private static int Sign(Random random, int v) {
+		return random.nextBoolean() ? v : -v;
+	}
+}
@@ -0,0 +1,190 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+/**
+ * Seeded generator of CNF instances for the benchmarks, Count Clear Clauses SAT Solver.
+ * The same family, parameters and seed give always the same file.
+ * Families:
+ *   random k n [ratio]       random k-SAT, ratio * n clauses, the default ratio is the phase
+ *                            transition (4.26 for 3-SAT), where the hardest instances are
+ *   planted k n [ratio]      random k-SAT, which is satisfied by a hidden random assignment
+ *   pigeon p                 p + 1 pigeons in p holes, (p + 1) * p variables, unsatisfiable
+ *   core k n [ratio]         random k-SAT with every sign combination of k of its variables,
+ *                            so it is unsatisfiable
+ *   components c a k [ratio] c planted k-SAT parts of a variables each, the variables of the
+ *                            parts are shuffled, so the parts are not contiguous
+ * Run it from the directory of the solvers:
+ *   java bench/CNFGenerator.java [-seed s] [-out file] family parameters
+ *   java bench/CNFGenerator.java -corpus dir
+ * -corpus writes the corpus of the regression runs, see CCCBenchmark, into dir.
+ */
+public class CNFGenerator {
+	public static void main(String[] args) throws IOException {
+		long seed = 1;
+		String out = null, corpus = null;
+		List<String> rest = new ArrayList<String>();
+		for (int i = 0; i < args.length; i++) {
+			boolean hasValue = i + 1 < args.length;
+			if (args[i].equals("-seed") && hasValue) seed = Long.parseLong(args[++i]);
+			else if (args[i].equals("-out") && hasValue) out = args[++i];
+			else if (args[i].equals("-corpus") && hasValue) corpus = args[++i];
+			else rest.add(args[i]);
+		}
+		if (corpus != null) {
+			Corpus(Paths.get(corpus));
+			return;
+		}
+		List<int[]> clauses = rest.isEmpty() ? null : Generate(rest.toArray(new String[0]), seed);
+		if (clauses == null || clauses.isEmpty()) {
+			System.out.println("Usage: java bench/CNFGenerator.java [-seed s] [-out file] family parameters");
+			System.out.println("       java bench/CNFGenerator.java -corpus dir");
+			System.out.println("Families: random k n [ratio], planted k n [ratio], pigeon p, core k n [ratio],");
+			System.out.println("          components c a k [ratio]");
+			return;
+		}
+		String comment = "c " + String.join(" ", rest) + " seed " + seed;
+		int n = Variables(rest.toArray(new String[0]));
+		if (out == null) Write(new PrintWriter(new OutputStreamWriter(System.out)), comment, n, clauses);
+		else Write(new PrintWriter(Files.newBufferedWriter(Paths.get(out))), comment, n, clauses);
+	}
+	// the corpus of the regression runs, at most 62 variables except the ones for the BigInt version
+	static final String[][] CORPUS = {
+		{ "random", "3", "20" }, { "random", "3", "30" }, { "random", "3", "40" },
+		{ "planted", "3", "40" }, { "planted", "3", "50" }, { "planted", "3", "62", "12" },
+		{ "pigeon", "5" }, { "pigeon", "6" }, { "pigeon", "7" },
+		{ "core", "3", "30" },
+		{ "components", "4", "12", "3" }, { "components", "5", "10", "3" },
+		{ "planted", "3", "70", "12" }, { "planted", "3", "90", "30" }
+	};
+	static void Corpus(Path dir) throws IOException {
+		Files.createDirectories(dir);
+		for (String[] family : CORPUS) {
+			long seed = 1;
+			String name = String.join("-", family) + "-s" + seed + ".cnf";
+			String comment = "c " + String.join(" ", family) + " seed " + seed;
+			Write(new PrintWriter(Files.newBufferedWriter(dir.resolve(name))), comment, Variables(family), Generate(family, seed));
+			System.out.println(dir.resolve(name));
+		}
+	}
+	// returns the clauses of the family, or null if the parameters are wrong
+	static List<int[]> Generate(String[] args, long seed) {
+		Random random = new Random(seed);
+		String family = args[0];
+		int p = args.length > 1 ? Integer.parseInt(args[1]) : 0;
+		int q = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+		if (family.equals("random") && args.length >= 3) {
+			return Random(random, p, q, Ratio(args, 3, p), null, 0);
+		}
+		if (family.equals("planted") && args.length >= 3) {
+			return Random(random, p, q, Ratio(args, 3, p), Hidden(random, q), 0);
+		}
+		if (family.equals("core") && args.length >= 3) {
+			List<int[]> clauses = Random(random, p, q, Ratio(args, 3, p), null, 0);
+			int[] vars = Distinct(random, q, p);
+			for (int signs = 0; signs < 1 << p; signs++) {
+				int[] c = new int[p];
+				for (int i = 0; i < p; i++) c[i] = (signs >> i & 1) != 0 ? vars[i] : -vars[i];
+				clauses.add(random.nextInt(clauses.size() + 1), c);
+			}
+			return clauses;
+		}
+		if (family.equals("pigeon") && args.length >= 2) {
+			return Pigeon(p);
+		}
+		if (family.equals("components") && args.length >= 4) {
+			int k = Integer.parseInt(args[3]);
+			double ratio = Ratio(args, 4, k);
+			List<int[]> clauses = new ArrayList<int[]>();
+			for (int part = 0; part < p; part++) {
+				clauses.addAll(Random(random, k, q, ratio, Hidden(random, q), part * q));
+			}
+			int[] shuffle = Distinct(random, p * q, p * q);
+			for (int[] c : clauses) {
+				for (int i = 0; i < c.length; i++) c[i] = c[i] > 0 ? shuffle[c[i] - 1] : -shuffle[-c[i] - 1];
+			}
+			return clauses;
+		}
+		return null;
+	}
+	// the number of variables of the family, some of them may be in no clause
+	static int Variables(String[] args) {
+		int p = Integer.parseInt(args[1]);
+		if (args[0].equals("pigeon")) return (p + 1) * p;
+		if (args[0].equals("components")) return p * Integer.parseInt(args[2]);
+		return Integer.parseInt(args[2]);
+	}
+	// the ratio of the clauses and the variables, args[i] or the phase transition of k-SAT
+	static double Ratio(String[] args, int i, int k) {
+		if (args.length > i) return Double.parseDouble(args[i]);
+		double[] threshold = { 0, 1, 1, 4.26, 9.93, 21.12, 43.37, 87.79 };
+		return k < threshold.length ? threshold[k] : Math.pow(2, k) * Math.log(2);
+	}
+	// round(ratio * n) random k-clauses over the variables offset+1..offset+n, if hidden is
+	// not null, the clauses which are false in it are dropped, so it is a model
+	static List<int[]> Random(Random random, int k, int n, double ratio, boolean[] hidden, int offset) {
+		List<int[]> clauses = new ArrayList<int[]>();
+		long m = Math.round(ratio * n);
+		while (clauses.size() < m) {
+			int[] vars = Distinct(random, n, k);
+			int[] c = new int[k];
+			boolean satisfied = hidden == null;
+			for (int i = 0; i < k; i++) {
+				boolean positive = random.nextBoolean();
+				c[i] = positive ? vars[i] + offset : -(vars[i] + offset);
+				if (hidden != null && hidden[vars[i]] == positive) satisfied = true;
+			}
+			if (satisfied) clauses.add(c);
+		}
+		return clauses;
+	}
+	// the values of the variables 1..n, hidden[0] is not used
+	static boolean[] Hidden(Random random, int n) {
+		boolean[] hidden = new boolean[n + 1];
+		for (int v = 1; v <= n; v++) hidden[v] = random.nextBoolean();
+		return hidden;
+	}
+	// k different variables of 1..n in random order
+	static int[] Distinct(Random random, int n, int k) {
+		int[] all = new int[n];
+		for (int i = 0; i < n; i++) all[i] = i + 1;
+		for (int i = 0; i < k; i++) {
+			int j = i + random.nextInt(n - i);
+			int t = all[i]; all[i] = all[j]; all[j] = t;
+		}
+		int[] vars = new int[k];
+		System.arraycopy(all, 0, vars, 0, k);
+		return vars;
+	}
+	// variable i * holes + j + 1 means that pigeon i is in hole j
+	static List<int[]> Pigeon(int holes) {
+		List<int[]> clauses = new ArrayList<int[]>();
+		for (int i = 0; i <= holes; i++) {
+			int[] c = new int[holes];
+			for (int j = 0; j < holes; j++) c[j] = i * holes + j + 1;
+			clauses.add(c); // every pigeon is in a hole
+		}
+		for (int j = 0; j < holes; j++) {
+			for (int a = 0; a <= holes; a++) {
+				for (int b = a + 1; b <= holes; b++) {
+					clauses.add(new int[] { -(a * holes + j + 1), -(b * holes + j + 1) }); // not both of them
+				}
+			}
+		}
+		return clauses;
+	}
+	static void Write(PrintWriter w, String comment, int n, List<int[]> clauses) {
+		w.println(comment);
+		w.println("p cnf " + n + " " + clauses.size());
+		for (int[] c : clauses) {
+			StringBuilder line = new StringBuilder();
+			for (int l : c) line.append(l).append(' ');
+			w.println(line.append('0'));
+		}
+		if (w.checkError()) System.err.println("The CNF could not be written.");
+		w.close();
+	}
+}
@@ -0,0 +1,71 @@
+import java.util.Random;
+import java.util.function.ToLongBiFunction;
+/**
+ * The kernels of CCC_BigInt_v1Dot2 for CCCBenchmark, it is compiled together with CCC_BigInt_v1Dot2.java.
+ * applyAsLong runs a kernel n times on random counters and the clauses of the file,
+ * and returns a checksum, so that the work is not optimized away.
+ * The kernels steps and jumps return the steps of the solver and the sum of their jumps.
+ */
+class KernelDriver implements ToLongBiFunction<String, Integer> {
+	private static final int SAMPLES = 1024; // a power of 2, the samples are indexed by i & (SAMPLES - 1)
+	private final ClauseSet s;
+	private final ClearClause[] counters = new ClearClause[SAMPLES];
+	private final Clause[] clauses = new Clause[SAMPLES];
+	private long walkSteps = -1, walkJumps; // see Walk
+	KernelDriver(String fileName) {
+		s = new ClauseSet(fileName);
+		Random random = new Random(42);
+		for (int i = 0; i < SAMPLES; i++) {
+			counters[i] = new ClearClause(global.numOfBits);
+			for (int b = 0; b < global.numOfBits; b++) {
+				if (random.nextBoolean()) counters[i].bits[b >>> 6] |= 1L << b;
+			}
+			clauses[i] = s.clauses.get(i % s.clauses.size());
+		}
+	}
+	// runs the same loop as SATCounter.SolveFrom0, and counts its steps and the sum of its jumps
+	private void Walk() {
+		if (walkSteps >= 0) return;
+		walkSteps = 0;
+		walkJumps = 0;
+		PackedClauses p = s.Packed();
+		ClearClause counter = new ClearClause(global.numOfBits);
+		int maxNumberOfX = p.BestJump(counter.bits);
+		while (maxNumberOfX >= 0) {
+			walkSteps++;
+			walkJumps += maxNumberOfX;
+			counter.add(maxNumberOfX);
+			if (counter.testBit(global.numOfBits)) return;
+			maxNumberOfX = p.BestJump(counter.bits);
+		}
+	}
+	@Override
+	public long applyAsLong(String kernel, Integer n) {
+		long sum = 0;
+		switch (kernel) {
+		case "isSubsumedBy":
+			for (int i = 0; i < n; i++) {
+				if (counters[i & (SAMPLES - 1)].isSubsumedBy(clauses[(i * 7) & (SAMPLES - 1)])) sum++;
+			}
+			return sum;
+		case "NumberOfXFromRight":
+			for (int i = 0; i < n; i++) sum += clauses[i & (SAMPLES - 1)].NumberOfXFromRight();
+			return sum;
+		case "SubsumersOfClearClause":
+			for (int i = 0; i < n; i++) sum += s.SubsumersOfClearClause(counters[i & (SAMPLES - 1)]).size();
+			return sum;
+		case "add":
+			ClearClause counter = new ClearClause(global.numOfBits);
+			for (int i = 0; i < n; i++) counter.add(i & 31);
+			return counter.bits[0];
+		case "steps":
+			Walk();
+			return walkSteps;
+		case "jumps":
+			Walk();
+			return walkJumps;
+		default:
+			return -1; // this variant has no such kernel
+		}
+	}
+}
@@ -0,0 +1,61 @@
+import java.util.Random;
+import java.util.function.ToLongBiFunction;
+/**
+ * The kernels of CCCBomberv1Dot0 for CCCBenchmark, it is compiled together with CCCBomberv1Dot0.java.
+ * applyAsLong runs a kernel n times on random counters and the clauses of the file,
+ * and returns a checksum, so that the work is not optimized away.
+ * The kernels steps and jumps return the steps of the solver and the sum of their jumps.
+ */
+class KernelDriver implements ToLongBiFunction<String, Integer> {
+	private static final int SAMPLES = 1024; // a power of 2, the samples are indexed by i & (SAMPLES - 1)
+	private final ClauseSet s;
+	private final ClearClause[] counters = new ClearClause[SAMPLES];
+	private final Clause[] clauses = new Clause[SAMPLES];
+	private long walkSteps = -1, walkJumps; // see Walk
+	KernelDriver(String fileName) {
+		s = new ClauseSet(fileName);
+		Random random = new Random(42);
+		long all = (1L << global.getNumOfBits()) - 1;
+		for (int i = 0; i < SAMPLES; i++) {
+			counters[i] = Clause.ToClause(random.nextLong() & all);
+			clauses[i] = s.clauses.get(i % s.clauses.size());
+		}
+	}
+	// runs the bombs with the default options, and counts their steps and the sum of their jumps
+	private void Walk() {
+		if (walkSteps >= 0) return;
+		BombScheduler scheduler = new BombScheduler(s, new Options());
+		scheduler.Solve();
+		walkSteps = scheduler.Steps();
+		walkJumps = Math.round(scheduler.AverageJump() * scheduler.Steps());
+	}
+	@Override
+	public long applyAsLong(String kernel, Integer n) {
+		long sum = 0;
+		switch (kernel) {
+		case "isSubsumedBy":
+			for (int i = 0; i < n; i++) {
+				if (counters[i & (SAMPLES - 1)].isSubsumedBy(clauses[(i * 7) & (SAMPLES - 1)])) sum++;
+			}
+			return sum;
+		case "NumberOfXFromRight":
+			for (int i = 0; i < n; i++) sum += clauses[i & (SAMPLES - 1)].NumberOfXFromRight();
+			return sum;
+		case "SubsumersOfClearClause":
+			for (int i = 0; i < n; i++) sum += s.SubsumersOfClearClause(counters[i & (SAMPLES - 1)]).size();
+			return sum;
+		case "add":
+			ClearClause counter = new ClearClause();
+			for (int i = 0; i < n; i++) counter.add(1L << (i & 31));
+			return counter.bits;
+		case "steps":
+			Walk();
+			return walkSteps;
+		case "jumps":
+			Walk();
+			return walkJumps;
+		default:
+			return -1; // this variant has no such kernel
+		}
+	}
+}
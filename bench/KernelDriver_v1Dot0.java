@@ -0,0 +1,77 @@
+import java.util.List;
+import java.util.Random;
+import java.util.function.ToLongBiFunction;
+/**
+ * The kernels of CCC_v1Dot0 for CCCBenchmark, it is compiled together with CCC_v1Dot0.java.
+ * applyAsLong runs a kernel n times on random counters and the clauses of the file,
+ * and returns a checksum, so that the work is not optimized away.
+ * The kernels steps and jumps return the steps of the solver and the sum of their jumps.
+ * v1.0 has no ClearClause, its counter is a Clause made by ToClause, so isSubsumedBy is
+ * measured by Subsumes, SubsumersOfClearClause by SubsumersOf, and add by the long addition.
+ */
+class KernelDriver implements ToLongBiFunction<String, Integer> {
+	private static final int SAMPLES = 1024; // a power of 2, the samples are indexed by i & (SAMPLES - 1)
+	private final ClauseSet s;
+	private final Clause[] counters = new Clause[SAMPLES];
+	private final Clause[] clauses = new Clause[SAMPLES];
+	private long walkSteps = -1, walkJumps; // see Walk
+	KernelDriver(String fileName) {
+		s = new ClauseSet(fileName);
+		Random random = new Random(42);
+		long all = (1L << global.numOfBits) - 1;
+		for (int i = 0; i < SAMPLES; i++) {
+			counters[i] = Clause.ToClause(random.nextLong() & all);
+			clauses[i] = s.clauses.get(i % s.clauses.size());
+		}
+	}
+	// runs the same loop as SATCounter.SolveFrom0, and counts its steps and the sum of its jumps
+	// the counter of v1.0 has 62 bits, so its jumps are bigger by 62 - the number of variables
+	private void Walk() {
+		if (walkSteps >= 0) return;
+		walkSteps = 0;
+		walkJumps = 0;
+		long counter = 0L;
+		List<Clause> subsumers = s.SubsumersOf(Clause.ToClause(counter));
+		while (!subsumers.isEmpty()) {
+			byte maxNumberOfX = 0;
+			for (Clause subsumer : subsumers) {
+				byte currentNumberOfX = subsumer.NumberOfXFromRight();
+				if (currentNumberOfX > maxNumberOfX) maxNumberOfX = currentNumberOfX;
+			}
+			walkSteps++;
+			walkJumps += maxNumberOfX;
+			counter += 1L << maxNumberOfX;
+			if (counter > (1L << global.numOfBits)) return;
+			subsumers = s.SubsumersOf(Clause.ToClause(counter));
+		}
+	}
+	@Override
+	public long applyAsLong(String kernel, Integer n) {
+		long sum = 0;
+		switch (kernel) {
+		case "isSubsumedBy":
+			for (int i = 0; i < n; i++) {
+				if (clauses[(i * 7) & (SAMPLES - 1)].Subsumes(counters[i & (SAMPLES - 1)])) sum++;
+			}
+			return sum;
+		case "NumberOfXFromRight":
+			for (int i = 0; i < n; i++) sum += clauses[i & (SAMPLES - 1)].NumberOfXFromRight();
+			return sum;
+		case "SubsumersOfClearClause":
+			for (int i = 0; i < n; i++) sum += s.SubsumersOf(counters[i & (SAMPLES - 1)]).size();
+			return sum;
+		case "add":
+			long counter = 0;
+			for (int i = 0; i < n; i++) counter += 1L << (i & 31);
+			return counter;
+		case "steps":
+			Walk();
+			return walkSteps;
+		case "jumps":
+			Walk();
+			return walkJumps;
+		default:
+			return -1; // this variant has no such kernel
+		}
+	}
+}
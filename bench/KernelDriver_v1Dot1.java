@@ -0,0 +1,84 @@
+import java.util.Random;
+import java.util.function.ToLongBiFunction;
+/**
+ * The kernels of CCC_v1Dot1 for CCCBenchmark, it is compiled together with CCC_v1Dot1.java.
+ * applyAsLong runs a kernel n times on random counters and the clauses of the file,
+ * and returns a checksum, so that the work is not optimized away.
+ * The kernels steps and jumps return the steps of the solver and the sum of their jumps,
+ * learnSteps and learnJumps the same of the solver with learned jump clauses.
+ */
+class KernelDriver implements ToLongBiFunction<String, Integer> {
+	private static final int SAMPLES = 1024; // a power of 2, the samples are indexed by i & (SAMPLES - 1)
+	private final ClauseSet s;
+	private final ClearClause[] counters = new ClearClause[SAMPLES];
+	private final Clause[] clauses = new Clause[SAMPLES];
+	private long walkSteps = -1, walkJumps; // see Walk
+	private long learnSteps = -1, learnJumps; // see Learn
+	KernelDriver(String fileName) {
+		s = new ClauseSet(fileName);
+		Random random = new Random(42);
+		long all = (1L << global.getNumOfBits()) - 1;
+		for (int i = 0; i < SAMPLES; i++) {
+			counters[i] = Clause.ToClause(random.nextLong() & all);
+			clauses[i] = s.clauses.get(i % s.clauses.size());
+		}
+	}
+	// runs the same loop as SATCounter.SolveFrom0, and counts its steps and the sum of its jumps
+	private void Walk() {
+		if (walkSteps >= 0) return;
+		walkSteps = 0;
+		walkJumps = 0;
+		ClearClause counter = new ClearClause();
+		int maxNumberOfX = s.BestJumpOfClearClause(counter);
+		while (maxNumberOfX >= 0) {
+			walkSteps++;
+			walkJumps += maxNumberOfX;
+			counter.add(1L << maxNumberOfX);
+			if (counter.testBit(global.getNumOfBits())) return;
+			maxNumberOfX = s.BestJumpOfClearClause(counter);
+		}
+	}
+	// runs the LearningSolver of -learn 1024 once
+	private void Learn() {
+		if (learnSteps >= 0) return;
+		LearningSolver learner = new LearningSolver(s, 1024);
+		learner.Solve(null);
+		learnSteps = learner.Steps();
+		learnJumps = Math.round(learner.AverageJump() * learnSteps);
+	}
+	@Override
+	public long applyAsLong(String kernel, Integer n) {
+		long sum = 0;
+		switch (kernel) {
+		case "isSubsumedBy":
+			for (int i = 0; i < n; i++) {
+				if (counters[i & (SAMPLES - 1)].isSubsumedBy(clauses[(i * 7) & (SAMPLES - 1)])) sum++;
+			}
+			return sum;
+		case "NumberOfXFromRight":
+			for (int i = 0; i < n; i++) sum += clauses[i & (SAMPLES - 1)].NumberOfXFromRight();
+			return sum;
+		case "SubsumersOfClearClause":
+			for (int i = 0; i < n; i++) sum += s.SubsumersOfClearClause(counters[i & (SAMPLES - 1)]).size();
+			return sum;
+		case "add":
+			ClearClause counter = new ClearClause();
+			for (int i = 0; i < n; i++) counter.add(1L << (i & 31));
+			return counter.bits;
+		case "steps":
+			Walk();
+			return walkSteps;
+		case "jumps":
+			Walk();
+			return walkJumps;
+		case "learnSteps":
+			Learn();
+			return learnSteps;
+		case "learnJumps":
+			Learn();
+			return learnJumps;
+		default:
+			return -1; // this variant has no such kernel
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package cccbench;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongBiFunction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The hot kernels of the version on the class path, on the clauses of an instance.
+ * The loops run in the KernelDriver of the version, on random counters, and they return a
+ * checksum, which JMH consumes. The time is per operation: one test, one jump or one add.
+ * v1.0 has no ClearClause, its KernelDriver measures the equivalent methods, see there.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class KernelBenchmark {
+	private static final int OPS = 1024;
+	private static final int SUBSUMER_OPS = 64; // every operation scans every clause
+	@Param({ "random-3-20-s1.cnf", "random-3-30-s1.cnf", "planted-3-40-s1.cnf", "pigeon-6-s1.cnf" })
+	public String instance;
+	private ToLongBiFunction<String, Integer> driver;
+	@Setup
+	public void Setup() throws ReflectiveOperationException {
+		Variant.Silence();
+		try {
+			driver = Variant.Driver(Variant.Instance(instance));
+		} finally {
+			Variant.Restore();
+		}
+	}
+	@Benchmark
+	@OperationsPerInvocation(OPS)
+	public long isSubsumedBy() {
+		return driver.applyAsLong("isSubsumedBy", OPS);
+	}
+	@Benchmark
+	@OperationsPerInvocation(OPS)
+	public long NumberOfXFromRight() {
+		return driver.applyAsLong("NumberOfXFromRight", OPS);
+	}
+	@Benchmark
+	@OperationsPerInvocation(SUBSUMER_OPS)
+	public long SubsumersOfClearClause() {
+		return driver.applyAsLong("SubsumersOfClearClause", SUBSUMER_OPS);
+	}
+	@Benchmark
+	@OperationsPerInvocation(OPS)
+	public long add() {
+		return driver.applyAsLong("add", OPS);
+	}
+}
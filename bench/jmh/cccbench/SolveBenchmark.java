@@ -0,0 +1,47 @@
+package cccbench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The end-to-end solve of an instance through the main of the version on the class path,
+ * reading the file included, as a user runs it. The output of the solver is dropped.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SolveBenchmark {
+	@Param({ "random-3-20-s1.cnf", "random-3-30-s1.cnf", "planted-3-40-s1.cnf", "pigeon-6-s1.cnf" })
+	public String instance;
+	private MethodHandle main;
+	private String[] args;
+	@Setup
+	public void Setup() throws ReflectiveOperationException {
+		main = Variant.Main();
+		args = new String[] { Variant.Instance(instance) };
+		Variant.Silence();
+	}
+	@TearDown
+	public void TearDown() {
+		Variant.Restore();
+	}
+	@Benchmark
+	public void solve() throws Throwable {
+		main.invokeExact(args.clone());
+	}
+}
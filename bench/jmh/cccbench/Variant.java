@@ -0,0 +1,48 @@
+package cccbench;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.nio.file.Paths;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * The version of the solver on the class path, see build.gradle.
+ * Every version declares its classes in the default package, which cannot be imported, so its
+ * KernelDriver and its main are looked up by name once, before the measurements.
+ * The system property ccc.variant is the main class, ccc.corpus is the directory of the instances.
+ */
+final class Variant {
+	private Variant() {
+	}
+	static String MainClass() {
+		return System.getProperty("ccc.variant", "CCC_v1Dot1");
+	}
+	// the path of an instance of the corpus
+	static String Instance(String name) {
+		return Paths.get(System.getProperty("ccc.corpus", "build/corpus"), name).toString();
+	}
+	@SuppressWarnings("unchecked")
+	static ToLongBiFunction<String, Integer> Driver(String file) throws ReflectiveOperationException {
+		Constructor<?> constructor = Class.forName("KernelDriver").getDeclaredConstructor(String.class);
+		constructor.setAccessible(true);
+		return (ToLongBiFunction<String, Integer>) constructor.newInstance(file);
+	}
+	// the main of the version as (String[])void
+	static MethodHandle Main() throws ReflectiveOperationException {
+		return MethodHandles.publicLookup().findStatic(Class.forName(MainClass()), "main",
+				MethodType.methodType(void.class, String[].class));
+	}
+	// the solvers print their answers, it is dropped during the measurements, Restore gives it back
+	private static PrintStream out;
+	static void Silence() {
+		out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+	}
+	static void Restore() {
+		if (out != null) System.setOut(out);
+	}
+}
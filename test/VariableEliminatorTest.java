@@ -0,0 +1,82 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * VariableEliminator of CCC_v1Dot1 against brute force, on inputs with tautologies and
+ * repeated literals, which it has to drop and merge before the resolution.
+ */
+class VariableEliminatorTest {
+	@Test
+	void TautologyDoesNotKeepTheEliminatedVariable() {
+		// (-2 v 2) is always true, if -2 stayed in the resolvent on 2, it would become literal 0
+		Check(File(2, new int[] { 2 }, new int[] { -2, 2 }), 2);
+		Check(File(2, new int[] { 1, -1, 2 }, new int[] { 2, 1 }, new int[] { 1 }, new int[] { -2, -2 }), 2);
+	}
+	@Test
+	void RandomInputsWithTautologiesAndRepeatedLiterals() {
+		Random random = new Random(1);
+		for (int round = 0; round < 2000; round++) {
+			int n = 3 + random.nextInt(10);
+			int m = 1 + random.nextInt(5 * n);
+			DimacsFile f = new DimacsFile();
+			f.numOfVariables = n;
+			for (int i = 0; i < m; i++) {
+				int[] c = new int[1 + random.nextInt(4)];
+				for (int j = 0; j < c.length; j++) c[j] = (1 + random.nextInt(n)) * (random.nextBoolean() ? 1 : -1);
+				if (c.length > 1 && random.nextInt(4) == 0) c[1] = -c[0]; // tautology
+				if (c.length > 1 && random.nextInt(4) == 0) c[c.length - 1] = c[0]; // repeated literal
+				f.clauses.add(c);
+			}
+			Check(f, random.nextInt(4));
+		}
+	}
+	// the answer of the eliminated problem is the same as by brute force, and its model satisfies f
+	private static void Check(DimacsFile f, int limit) {
+		List<int[]> original = new ArrayList<int[]>();
+		for (int[] c : f.clauses) original.add(c.clone());
+		boolean satisfiable = Brute(f.numOfVariables, original);
+		ClauseSet s = new VariableEliminator(limit).Eliminate(f);
+		Clause solution = SATCounter.SolveFrom0(s);
+		assertEquals(satisfiable, solution != null, () -> "wrong answer for " + Text(original));
+		if (solution == null) return;
+		boolean[] value = new boolean[f.numOfVariables + 1];
+		for (String field : s.ToDimacs(solution).trim().split("\\s+")) {
+			int literal = Integer.parseInt(field);
+			if (literal != 0) value[Math.abs(literal)] = literal > 0;
+		}
+		assertTrue(Satisfies(value, original), () -> "wrong model for " + Text(original));
+	}
+	private static boolean Brute(int n, List<int[]> clauses) {
+		boolean[] value = new boolean[n + 1];
+		for (long x = 0; x < 1L << n; x++) {
+			for (int v = 1; v <= n; v++) value[v] = (x >>> (v - 1) & 1) != 0;
+			if (Satisfies(value, clauses)) return true;
+		}
+		return false;
+	}
+	private static boolean Satisfies(boolean[] value, List<int[]> clauses) {
+		for (int[] c : clauses) {
+			boolean satisfied = false;
+			for (int l : c) if (value[Math.abs(l)] == (l > 0)) satisfied = true;
+			if (!satisfied) return false;
+		}
+		return true;
+	}
+	private static DimacsFile File(int n, int[]... clauses) {
+		DimacsFile f = new DimacsFile();
+		f.numOfVariables = n;
+		f.clauses.addAll(Arrays.asList(clauses));
+		return f;
+	}
+	private static String Text(List<int[]> clauses) {
+		StringBuilder s = new StringBuilder();
+		for (int[] c : clauses) s.append(Arrays.toString(c));
+		return s.toString();
+	}
+}